@@ -0,0 +1,56 @@
+package com.tasktracker;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+// Streaming json for a completed task, same layout as the reflective {"completedAt":...,"task":...}
+public class CompletedTaskAdapter extends TypeAdapter<CompletedTask>
+{
+    @Override
+    public void write(JsonWriter out, CompletedTask task) throws IOException
+    {
+        if (task == null)
+        {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("completedAt").value(task.getCompletedAt());
+        out.name("task").value(task.getTask());
+        out.endObject();
+    }
+
+    @Override
+    public CompletedTask read(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+
+        long completedAt = 0;
+        String task = null;
+        in.beginObject();
+        while (in.hasNext())
+        {
+            switch (in.nextName())
+            {
+                case "completedAt":
+                    completedAt = in.nextLong();
+                    break;
+                case "task":
+                    task = TaskTrackerDataAdapter.readString(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new CompletedTask(completedAt, task);
+    }
+}
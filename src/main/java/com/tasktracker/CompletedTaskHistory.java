@@ -0,0 +1,360 @@
+package com.tasktracker;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Completed tasks stored as columns, a timestamp array and an array of ids into a dictionary of task names
+// Each entry costs 12 bytes no matter how often the same task is completed, entries are read as CompletedTask views
+// Names are counted by the entries using them, a name leaves the dictionary with its last entry and its id is reused
+public class CompletedTaskHistory extends AbstractList<CompletedTask>
+{
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] times;
+    private int[] nameIds;
+    private int size;
+
+    // Every distinct task name, stored once, ids of names without entries are null and wait in freeIds to be reused
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIndex = new HashMap<>();
+    private int[] nameCounts = new int[DEFAULT_CAPACITY];
+    private int[] freeIds = new int[DEFAULT_CAPACITY];
+    private int freeCount;
+
+    public CompletedTaskHistory()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Creates a history with room for a known number of entries
+    public CompletedTaskHistory(int capacity)
+    {
+        times = new long[Math.max(capacity, DEFAULT_CAPACITY)];
+        nameIds = new int[times.length];
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    // Number of distinct task names with at least one entry
+    public int nameCount()
+    {
+        return nameIndex.size();
+    }
+
+    @Override
+    public CompletedTask get(int index)
+    {
+        checkIndex(index, size);
+        return new CompletedTask(times[index], names.get(nameIds[index]));
+    }
+
+    // Changes with every edit of the entries, so a copy of the rows can tell when it is out of date
+    public int getVersion()
+    {
+        return modCount;
+    }
+
+    // Completion time of an entry, without creating a CompletedTask
+    public long getCompletedAt(int index)
+    {
+        checkIndex(index, size);
+        return times[index];
+    }
+
+    // Task name of an entry, without creating a CompletedTask
+    public String getTask(int index)
+    {
+        checkIndex(index, size);
+        return names.get(nameIds[index]);
+    }
+
+    @Override
+    public CompletedTask set(int index, CompletedTask task)
+    {
+        CompletedTask previous = get(index);
+        int id = acquire(task.getTask());
+        release(nameIds[index]);
+        times[index] = task.getCompletedAt();
+        nameIds[index] = id;
+        // Not a structural change, but views of the rows must still see it
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, CompletedTask task)
+    {
+        checkIndex(index, size + 1);
+        ensureCapacity(size + 1);
+        System.arraycopy(times, index, times, index + 1, size - index);
+        System.arraycopy(nameIds, index, nameIds, index + 1, size - index);
+        times[index] = task.getCompletedAt();
+        nameIds[index] = acquire(task.getTask());
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public CompletedTask remove(int index)
+    {
+        CompletedTask previous = get(index);
+        release(nameIds[index]);
+        System.arraycopy(times, index + 1, times, index, size - index - 1);
+        System.arraycopy(nameIds, index + 1, nameIds, index, size - index - 1);
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear()
+    {
+        size = 0;
+        names.clear();
+        nameIndex.clear();
+        freeCount = 0;
+        modCount++;
+    }
+
+    // Adds a completed task in time order, new completions are appended without searching
+    public void insert(CompletedTask task)
+    {
+        int index = size;
+        if (index > 0 && times[index - 1] > task.getCompletedAt())
+        {
+            // Insert after any tasks completed at the same time
+            index = indexAfter(task.getCompletedAt());
+        }
+        add(index, task);
+    }
+
+    // Index of the first entry completed after the given time, entries must be sorted by time
+    public int indexAfter(long time)
+    {
+        int low = 0;
+        int high = size;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Checks for an entry with exactly this time and task, entries must be sorted by time
+    public boolean contains(long completedAt, String task)
+    {
+        Integer id = nameIndex.get(task);
+        if (id == null)
+        {
+            return false;
+        }
+        for (int i = indexAfter(completedAt) - 1; i >= 0 && times[i] == completedAt; i--)
+        {
+            if (nameIds[i] == id)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Removes every entry whose flag is false in a single pass, the kept entries stay in order
+    public void retainEntries(boolean[] keep)
+    {
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+        {
+            if (keep[i])
+            {
+                times[kept] = times[i];
+                nameIds[kept] = nameIds[i];
+                kept++;
+            }
+            else
+            {
+                release(nameIds[i]);
+            }
+        }
+
+        if (kept != size)
+        {
+            size = kept;
+            modCount++;
+        }
+    }
+
+    // Removes every completion of a task in a single pass, returns true if any were removed
+    public boolean removeTask(String task)
+    {
+        Integer id = nameIndex.get(task);
+        if (id == null)
+        {
+            return false;
+        }
+
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+        {
+            if (nameIds[i] != id)
+            {
+                times[kept] = times[i];
+                nameIds[kept] = nameIds[i];
+                kept++;
+            }
+        }
+
+        boolean removed = kept != size;
+        if (removed)
+        {
+            size = kept;
+            modCount++;
+            // Every entry of the task is gone, so is its name
+            nameCounts[id] = 1;
+            release(id);
+        }
+        return removed;
+    }
+
+    // Sorts entries oldest first, already sorted and reversed (old newest first saves) histories take O(n)
+    public void sortByTime()
+    {
+        boolean ascending = true;
+        boolean descending = true;
+        for (int i = 1; i < size && (ascending || descending); i++)
+        {
+            ascending &= times[i - 1] <= times[i];
+            descending &= times[i - 1] >= times[i];
+        }
+
+        if (ascending)
+        {
+            return;
+        }
+        if (descending)
+        {
+            // Reverse runs of equal times as well so they stay in the order they were added
+            reverse(0, size);
+            for (int start = 0, end; start < size; start = end)
+            {
+                end = start + 1;
+                while (end < size && times[end] == times[start])
+                {
+                    end++;
+                }
+                reverse(start, end);
+            }
+            modCount++;
+            return;
+        }
+
+        // Stable sort of the entry order, then rebuild both columns
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++)
+        {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> times[i]));
+
+        long[] sortedTimes = new long[times.length];
+        int[] sortedIds = new int[nameIds.length];
+        for (int i = 0; i < size; i++)
+        {
+            sortedTimes[i] = times[order[i]];
+            sortedIds[i] = nameIds[order[i]];
+        }
+        times = sortedTimes;
+        nameIds = sortedIds;
+        modCount++;
+    }
+
+    private void reverse(int from, int to)
+    {
+        for (int i = from, j = to - 1; i < j; i++, j--)
+        {
+            long time = times[i];
+            times[i] = times[j];
+            times[j] = time;
+            int id = nameIds[i];
+            nameIds[i] = nameIds[j];
+            nameIds[j] = id;
+        }
+    }
+
+    // Dictionary id of a task name for one more entry, adding the name if it is new
+    private int acquire(String task)
+    {
+        Integer id = nameIndex.get(task);
+        if (id == null)
+        {
+            if (freeCount > 0)
+            {
+                id = freeIds[--freeCount];
+                names.set(id, task);
+            }
+            else
+            {
+                id = names.size();
+                names.add(task);
+                if (id == nameCounts.length)
+                {
+                    nameCounts = Arrays.copyOf(nameCounts, id * 2);
+                }
+            }
+            nameIndex.put(task, id);
+            nameCounts[id] = 0;
+        }
+        nameCounts[id]++;
+        return id;
+    }
+
+    // Counts one less entry using a name, the name is dropped with its last entry
+    private void release(int id)
+    {
+        if (--nameCounts[id] > 0)
+        {
+            return;
+        }
+        nameIndex.remove(names.get(id));
+        names.set(id, null);
+        if (freeCount == freeIds.length)
+        {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity > times.length)
+        {
+            int newCapacity = Math.max(capacity, times.length + (times.length >> 1));
+            times = Arrays.copyOf(times, newCapacity);
+            nameIds = Arrays.copyOf(nameIds, newCapacity);
+        }
+    }
+
+    private static void checkIndex(int index, int length)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.tasktracker;
+
+import net.runelite.client.ui.ColorScheme;
+
+import javax.swing.JComponent;
+import javax.swing.ToolTipManager;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+// Calendar of completions over the last weeks, one tile per day coloured by how many tasks were completed that day
+// The tiles are drawn into a cached image, painting only copies the image so scrolling never draws a tile
+// An update only redraws the tiles whose colour changed, the whole image is only redrawn when the days shown move
+// on or the colour changes
+public class CompletionHeatmap extends JComponent
+{
+    public static final int WEEKS = 26;
+    public static final int DAYS = WEEKS * 7;
+    private static final int TILE_SIZE = 5;
+    private static final int TILE_GAP = 1;
+    private static final int TILE_PITCH = TILE_SIZE + TILE_GAP;
+    private static final int IMAGE_WIDTH = WEEKS * TILE_PITCH - TILE_GAP;
+    private static final int IMAGE_HEIGHT = 7 * TILE_PITCH - TILE_GAP;
+    // Share of the colour each level is blended towards, level 0 is a day without completions
+    private static final float[] LEVEL_SHARES = {0, 0.3f, 0.55f, 0.8f, 1};
+    private static final DateTimeFormatter TOOLTIP_DATE = DateTimeFormatter.ofPattern("EEE d MMM yyyy");
+
+    private final BufferedImage image = new BufferedImage(IMAGE_WIDTH, IMAGE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    private final int[] counts = new int[DAYS];
+    private final int[] levels = new int[DAYS];
+    private final Color[] palette = new Color[LEVEL_SHARES.length];
+    // Epoch day of the first tile, a monday, and of today, tiles after today are left empty
+    private long firstDay = Long.MIN_VALUE;
+    private long today;
+    private Color color;
+
+    public CompletionHeatmap()
+    {
+        setOpaque(false);
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    // Epoch day of the first tile when showing the weeks up to today, the columns start on mondays
+    public static long firstDayShown(long today)
+    {
+        int weekday = LocalDate.ofEpochDay(today).getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
+        return today - weekday - (WEEKS - 1) * 7L;
+    }
+
+    // Shows the completions per day from the first tile on, only the tiles whose colour changed are redrawn
+    public void update(long today, int[] dayCounts, Color color)
+    {
+        long first = firstDayShown(today);
+        if (first != firstDay || today != this.today || !color.equals(this.color))
+        {
+            firstDay = first;
+            this.today = today;
+            this.color = color;
+            System.arraycopy(dayCounts, 0, counts, 0, DAYS);
+            redrawAll();
+            repaint();
+            return;
+        }
+
+        // Bounds of the tiles that were redrawn, in tiles
+        int minColumn = Integer.MAX_VALUE;
+        int maxColumn = -1;
+        Graphics2D g = image.createGraphics();
+        try
+        {
+            for (int i = 0; i < DAYS && firstDay + i <= today; i++)
+            {
+                if (dayCounts[i] == counts[i])
+                {
+                    continue;
+                }
+                counts[i] = dayCounts[i];
+                int level = levelOf(counts[i]);
+                if (level == levels[i])
+                {
+                    continue;
+                }
+                levels[i] = level;
+                drawTile(g, i);
+                minColumn = Math.min(minColumn, i / 7);
+                maxColumn = Math.max(maxColumn, i / 7);
+            }
+        }
+        finally
+        {
+            g.dispose();
+        }
+
+        if (maxColumn >= 0)
+        {
+            repaint(imageX() + minColumn * TILE_PITCH, getInsets().top, (maxColumn - minColumn + 1) * TILE_PITCH, IMAGE_HEIGHT);
+        }
+    }
+
+    // The image and the border around it
+    @Override
+    public Dimension getPreferredSize()
+    {
+        Insets insets = getInsets();
+        return new Dimension(IMAGE_WIDTH + insets.left + insets.right, IMAGE_HEIGHT + insets.top + insets.bottom);
+    }
+
+    @Override
+    public Dimension getMinimumSize()
+    {
+        return getPreferredSize();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        if (firstDay != Long.MIN_VALUE)
+        {
+            g.drawImage(image, imageX(), getInsets().top, null);
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e)
+    {
+        int column = (e.getX() - imageX()) / TILE_PITCH;
+        int row = (e.getY() - getInsets().top) / TILE_PITCH;
+        if (firstDay == Long.MIN_VALUE || e.getX() < imageX() || e.getY() < getInsets().top || column >= WEEKS || row >= 7)
+        {
+            return null;
+        }
+        int index = column * 7 + row;
+        if (firstDay + index > today)
+        {
+            return null;
+        }
+        int count = counts[index];
+        return LocalDate.ofEpochDay(firstDay + index).format(TOOLTIP_DATE) + ": " + count + (count == 1 ? " task" : " tasks");
+    }
+
+    // Helper function to draw every tile again, used when the days or the colour changed
+    private void redrawAll()
+    {
+        for (int level = 0; level < palette.length; level++)
+        {
+            palette[level] = blend(ColorScheme.DARKER_GRAY_COLOR, color, LEVEL_SHARES[level]);
+        }
+
+        Graphics2D g = image.createGraphics();
+        try
+        {
+            // Clear to transparent so the tiles after today show the panel behind them
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT);
+            g.setComposite(AlphaComposite.SrcOver);
+            Arrays.fill(levels, 0);
+            for (int i = 0; i < DAYS && firstDay + i <= today; i++)
+            {
+                levels[i] = levelOf(counts[i]);
+                drawTile(g, i);
+            }
+        }
+        finally
+        {
+            g.dispose();
+        }
+    }
+
+    private void drawTile(Graphics2D g, int index)
+    {
+        g.setColor(palette[levels[index]]);
+        g.fillRect(index / 7 * TILE_PITCH, index % 7 * TILE_PITCH, TILE_SIZE, TILE_SIZE);
+    }
+
+    // Helper function to find where the image is drawn, it is centred in the width the layout gives
+    private int imageX()
+    {
+        return Math.max(0, (getWidth() - IMAGE_WIDTH) / 2);
+    }
+
+    // Helper function to bucket a day's count, 1, 2-3, 4-7 and 8 or more completions each get a level
+    private static int levelOf(int count)
+    {
+        return Math.min(LEVEL_SHARES.length - 1, 32 - Integer.numberOfLeadingZeros(count));
+    }
+
+    private static Color blend(Color from, Color to, float share)
+    {
+        return new Color(
+                Math.round(from.getRed() + (to.getRed() - from.getRed()) * share),
+                Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * share),
+                Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * share));
+    }
+}
@@ -0,0 +1,307 @@
+package com.tasktracker;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+// Completion statistics kept as a count per local day, with a Fenwick tree over the counts for range sums
+// New completions are added in O(log n), any other edit of the history rebuilds everything from it once
+// Runs of days with completions store their length at both ends, so joining runs and reading streaks are O(1)
+public class CompletionStats
+{
+    private static final int MIN_CAPACITY = 64;
+    private static final int DAYS_PER_MONTH = 30;
+    private static final int DAYS_PER_WEEK = 7;
+
+    private final ZoneId zone;
+
+    // History the counts were built from and its version, anything else means they are out of date
+    private CompletedTaskHistory source;
+    private int sourceVersion;
+
+    // Epoch day of index 0
+    private long firstDay;
+    private int dayCount;
+    private int[] dayCounts = new int[0];
+    // Fenwick tree over dayCounts, 1 based
+    private int[] tree = new int[1];
+    private int[] runLengths = new int[0];
+    private int longestStreak;
+    private int total;
+    private long lastCompletedAt;
+
+    public CompletionStats(ZoneId zone)
+    {
+        this.zone = zone;
+    }
+
+    // Counts a completion that was just added to the history
+    // Counting is left to the next rebuild when anything else changed the history since the counts were last up to date
+    public synchronized void added(CompletedTaskHistory history, long completedAt)
+    {
+        if (history != source || history.getVersion() != sourceVersion + 1)
+        {
+            return;
+        }
+        sourceVersion++;
+        count(completedAt);
+    }
+
+    // Every statistic at a point in time, each is read in O(1) or O(log n) once the counts are up to date
+    public synchronized Summary summarize(CompletedTaskHistory history, long now, int milestoneInterval)
+    {
+        if (history != source || history.getVersion() != sourceVersion)
+        {
+            rebuild(history);
+        }
+
+        long today = epochDay(now);
+        int todayCount = countDays(today, today);
+        int lastWeek = countDays(today - DAYS_PER_WEEK + 1, today);
+        int lastMonth = countDays(today - DAYS_PER_MONTH + 1, today);
+        double averagePerDay = total == 0 ? 0 : (double) total / Math.max(1, today - firstDay + 1);
+
+        // The streak is still going until a day ends without a completion
+        int currentStreak = streakEndingAt(today);
+        if (currentStreak == 0)
+        {
+            currentStreak = streakEndingAt(today - 1);
+        }
+
+        // Estimated from the last month, or from the whole history if the last month was empty
+        int nextMilestone = 0;
+        double milestoneEtaDays = Double.NaN;
+        if (milestoneInterval > 0)
+        {
+            nextMilestone = (total / milestoneInterval + 1) * milestoneInterval;
+            double rate = lastMonth > 0 ? (double) lastMonth / DAYS_PER_MONTH : averagePerDay;
+            if (rate > 0)
+            {
+                milestoneEtaDays = (nextMilestone - total) / rate;
+            }
+        }
+
+        return new Summary(total, todayCount, lastWeek, lastMonth, averagePerDay, currentStreak, longestStreak,
+                total == 0 ? -1 : lastCompletedAt, nextMilestone, milestoneEtaDays);
+    }
+
+    // Completions on each day from an epoch day onwards, one day per element of counts
+    public synchronized void fillDayCounts(CompletedTaskHistory history, long fromDay, int[] counts)
+    {
+        if (history != source || history.getVersion() != sourceVersion)
+        {
+            rebuild(history);
+        }
+        for (int i = 0; i < counts.length; i++)
+        {
+            long index = fromDay + i - firstDay;
+            counts[i] = total > 0 && index >= 0 && index < dayCount ? dayCounts[(int) index] : 0;
+        }
+    }
+
+    private void rebuild(CompletedTaskHistory history)
+    {
+        source = history;
+        sourceVersion = history.getVersion();
+        total = 0;
+        dayCount = 0;
+        longestStreak = 0;
+        lastCompletedAt = 0;
+        if (history.isEmpty())
+        {
+            dayCounts = new int[0];
+            tree = new int[1];
+            runLengths = new int[0];
+            return;
+        }
+
+        // The history is sorted, so the first and last entries bound the days
+        firstDay = epochDay(history.getCompletedAt(0));
+        dayCount = (int) (epochDay(history.getCompletedAt(history.size() - 1)) - firstDay + 1);
+        dayCounts = new int[Math.max(MIN_CAPACITY, dayCount * 2)];
+        // Entries are sorted, so a day only has to be looked up when an entry falls outside the previous one
+        long dayStart = Long.MAX_VALUE;
+        long dayEnd = Long.MIN_VALUE;
+        int index = 0;
+        for (int i = 0; i < history.size(); i++)
+        {
+            long completedAt = history.getCompletedAt(i);
+            if (completedAt < dayStart || completedAt >= dayEnd)
+            {
+                long day = epochDay(completedAt);
+                index = (int) (day - firstDay);
+                dayStart = startOfDay(day);
+                dayEnd = startOfDay(day + 1);
+            }
+            dayCounts[index]++;
+            lastCompletedAt = Math.max(lastCompletedAt, completedAt);
+        }
+        total = history.size();
+        rebuildIndexes();
+    }
+
+    // Adds one completion to the day counts, the tree and the runs
+    private void count(long completedAt)
+    {
+        long day = epochDay(completedAt);
+        if (total == 0)
+        {
+            firstDay = day;
+        }
+        else if (day < firstDay)
+        {
+            // Completed before every other entry, shift the days to make room in front
+            int shift = (int) (firstDay - day);
+            int[] shifted = new int[Math.max(dayCounts.length, dayCount + shift) * 2];
+            System.arraycopy(dayCounts, 0, shifted, shift, dayCount);
+            dayCounts = shifted;
+            dayCount += shift;
+            firstDay = day;
+            rebuildIndexes();
+        }
+
+        int index = (int) (day - firstDay);
+        if (index >= dayCounts.length)
+        {
+            dayCounts = Arrays.copyOf(dayCounts, Math.max(MIN_CAPACITY, (index + 1) * 2));
+            rebuildIndexes();
+        }
+        dayCount = Math.max(dayCount, index + 1);
+        total++;
+        lastCompletedAt = Math.max(lastCompletedAt, completedAt);
+
+        dayCounts[index]++;
+        for (int i = index + 1; i < tree.length; i += i & -i)
+        {
+            tree[i]++;
+        }
+        if (dayCounts[index] == 1)
+        {
+            joinRun(index);
+        }
+    }
+
+    // Builds the tree in O(n) and finds every run of days with completions
+    private void rebuildIndexes()
+    {
+        tree = new int[dayCounts.length + 1];
+        for (int i = 1; i < tree.length; i++)
+        {
+            tree[i] += dayCounts[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length)
+            {
+                tree[parent] += tree[i];
+            }
+        }
+
+        runLengths = new int[dayCounts.length];
+        longestStreak = 0;
+        for (int start = 0, end; start < dayCount; start = end + 1)
+        {
+            if (dayCounts[start] == 0)
+            {
+                end = start;
+                continue;
+            }
+            end = start;
+            while (end + 1 < dayCount && dayCounts[end + 1] > 0)
+            {
+                end++;
+            }
+            int length = end - start + 1;
+            runLengths[start] = length;
+            runLengths[end] = length;
+            longestStreak = Math.max(longestStreak, length);
+        }
+    }
+
+    // A day got its first completion, it joins the runs on either side of it
+    private void joinRun(int index)
+    {
+        int left = index > 0 && dayCounts[index - 1] > 0 ? runLengths[index - 1] : 0;
+        int right = index + 1 < dayCount && dayCounts[index + 1] > 0 ? runLengths[index + 1] : 0;
+        int length = left + 1 + right;
+        runLengths[index - left] = length;
+        runLengths[index + right] = length;
+        longestStreak = Math.max(longestStreak, length);
+    }
+
+    // Length of the run of days with completions that ends on a day, 0 if there were none that day
+    private int streakEndingAt(long day)
+    {
+        long index = day - firstDay;
+        if (total == 0 || index < 0 || index >= dayCount || dayCounts[(int) index] == 0)
+        {
+            return 0;
+        }
+        int end = (int) index;
+        if (end + 1 >= dayCount || dayCounts[end + 1] == 0)
+        {
+            return runLengths[end];
+        }
+
+        // Only completions dated in the future leave the day in the middle of a run
+        int length = 0;
+        for (int i = end; i >= 0 && dayCounts[i] > 0; i--)
+        {
+            length++;
+        }
+        return length;
+    }
+
+    // Completions between two epoch days, both included
+    private int countDays(long fromDay, long toDay)
+    {
+        long from = Math.max(0, fromDay - firstDay);
+        long to = Math.min(dayCount - 1, toDay - firstDay);
+        if (total == 0 || from > to)
+        {
+            return 0;
+        }
+        return prefixSum((int) to) - prefixSum((int) from - 1);
+    }
+
+    // Completions on every day up to and including an index
+    private int prefixSum(int index)
+    {
+        int sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i)
+        {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private long startOfDay(long epochDay)
+    {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private long epochDay(long time)
+    {
+        return Instant.ofEpochMilli(time).atZone(zone).toLocalDate().toEpochDay();
+    }
+
+    // Statistics at one point in time, lastCompletedAt is -1 and milestoneEtaDays is NaN when unknown
+    @Value
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Summary
+    {
+        private final int total;
+        private final int today;
+        private final int lastWeek;
+        private final int lastMonth;
+        private final double averagePerDay;
+        private final int currentStreak;
+        private final int longestStreak;
+        private final long lastCompletedAt;
+        private final int nextMilestone;
+        private final double milestoneEtaDays;
+    }
+}
@@ -0,0 +1,124 @@
+package com.tasktracker;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// A set of tasks in a dense array with a map from task to index, contains, add, remove and get by index are all O(1)
+// Removing swaps the last task into the gap, so the order is not stable, use SortedTaskList when it has to be
+public class IndexedTaskSet extends AbstractList<String> implements RandomAccess
+{
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private String[] tasks = new String[DEFAULT_CAPACITY];
+    private final Map<String, Integer> positions = new HashMap<>();
+    private int size;
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public String get(int index)
+    {
+        checkIndex(index);
+        return tasks[index];
+    }
+
+    @Override
+    public boolean contains(Object task)
+    {
+        return positions.containsKey(task);
+    }
+
+    @Override
+    public int indexOf(Object task)
+    {
+        Integer index = positions.get(task);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    public int lastIndexOf(Object task)
+    {
+        return indexOf(task);
+    }
+
+    // Appends the task, returns false if it is already in the set
+    @Override
+    public boolean add(String task)
+    {
+        if (task == null || positions.containsKey(task))
+        {
+            return false;
+        }
+        if (size == tasks.length)
+        {
+            tasks = Arrays.copyOf(tasks, size + (size >> 1));
+        }
+        tasks[size] = task;
+        positions.put(task, size);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object task)
+    {
+        Integer index = positions.get(task);
+        if (index == null)
+        {
+            return false;
+        }
+        remove((int) index);
+        return true;
+    }
+
+    // Removes the task at an index by moving the last task into its place
+    @Override
+    public String remove(int index)
+    {
+        checkIndex(index);
+        String task = tasks[index];
+        swap(index, size - 1);
+        tasks[--size] = null;
+        positions.remove(task);
+        modCount++;
+        return task;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(tasks, 0, size, null);
+        positions.clear();
+        size = 0;
+        modCount++;
+    }
+
+    // Exchanges the tasks at two indexes
+    public void swap(int i, int j)
+    {
+        checkIndex(i);
+        checkIndex(j);
+        String first = tasks[i];
+        String second = tasks[j];
+        tasks[i] = second;
+        tasks[j] = first;
+        positions.put(second, i);
+        positions.put(first, j);
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
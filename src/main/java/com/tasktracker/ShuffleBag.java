@@ -0,0 +1,114 @@
+package com.tasktracker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Rolls every active task once before any task is rolled again
+// Tasks are kept in an IndexedTaskSet, the ones drawn this round before the pointer and the rest after it, drawing a
+// task swaps it to the pointer (one Fisher-Yates step at a time) so the bag is never reshuffled as a whole
+// Adding and removing a task are O(1) and keep the round going
+public class ShuffleBag
+{
+    private final IndexedTaskSet tasks = new IndexedTaskSet();
+    private int drawn;
+
+    public int size()
+    {
+        return tasks.size();
+    }
+
+    // Adds a task that has not been drawn this round
+    public boolean add(String task)
+    {
+        return tasks.add(task);
+    }
+
+    public boolean remove(String task)
+    {
+        int index = tasks.indexOf(task);
+        if (index < 0)
+        {
+            return false;
+        }
+
+        // Keep the drawn part packed, move the last drawn task into the gap first
+        if (index < drawn)
+        {
+            tasks.swap(index, drawn - 1);
+            index = drawn - 1;
+            drawn--;
+        }
+        tasks.remove(index);
+        return true;
+    }
+
+    // Picks a random task that has not been drawn this round without drawing it, never the excluded task
+    // Returns null if there is no other task
+    public String pick(SplittableRandom random, String excluded)
+    {
+        // Every task was drawn, the next draw starts a new round
+        int start = drawn == tasks.size() ? 0 : drawn;
+        int excludedIndex = tasks.indexOf(excluded);
+        if (excludedIndex >= start && tasks.size() - start == 1)
+        {
+            // Only the excluded task is left this round, pick from the whole bag instead
+            start = 0;
+        }
+
+        int candidates = tasks.size() - start;
+        if (excludedIndex < start)
+        {
+            return candidates == 0 ? null : tasks.get(start + random.nextInt(candidates));
+        }
+        if (candidates <= 1)
+        {
+            return null;
+        }
+        // Pick between the other candidates, skipping over the excluded one
+        int index = start + random.nextInt(candidates - 1);
+        return tasks.get(index >= excludedIndex ? index + 1 : index);
+    }
+
+    // Moves a task to the drawn part, starting a new round when every task was already drawn
+    public void markDrawn(String task)
+    {
+        int index = tasks.indexOf(task);
+        if (index < 0)
+        {
+            return;
+        }
+        if (drawn == tasks.size())
+        {
+            drawn = 0;
+        }
+        if (index >= drawn)
+        {
+            tasks.swap(index, drawn);
+            drawn++;
+        }
+    }
+
+    // Tasks drawn this round, the rest of the bag is every other task
+    public List<String> getDrawnTasks()
+    {
+        return new ArrayList<>(tasks.subList(0, drawn));
+    }
+
+    // Makes the bag hold exactly the given tasks, used after whole lists were loaded or edited
+    public void sync(Collection<String> activeTasks)
+    {
+        for (String task : new ArrayList<>(tasks))
+        {
+            if (!activeTasks.contains(task))
+            {
+                remove(task);
+            }
+        }
+        for (String task : activeTasks)
+        {
+            add(task);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.tasktracker;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// A set of tasks kept in natural order, adding, removing and finding a task by index are O(log n)
+// Backed by a treap where each node knows its subtree size, plus a map from task to node
+public class SortedTaskList extends AbstractList<String>
+{
+    private final Map<String, Node> nodes = new HashMap<>();
+    private Node root;
+
+    private static final class Node
+    {
+        private final String task;
+        private final TaskSortKey key;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node left;
+        private Node right;
+        private Node parent;
+        private int size = 1;
+
+        private Node(String task)
+        {
+            this.task = task;
+            this.key = new TaskSortKey(task);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return nodes.size();
+    }
+
+    @Override
+    public boolean contains(Object task)
+    {
+        return nodes.containsKey(task);
+    }
+
+    @Override
+    public String get(int index)
+    {
+        if (index < 0 || index >= size())
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        Node node = root;
+        while (true)
+        {
+            int leftSize = size(node.left);
+            if (index < leftSize)
+            {
+                node = node.left;
+            }
+            else if (index == leftSize)
+            {
+                return node.task;
+            }
+            else
+            {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    @Override
+    public int indexOf(Object task)
+    {
+        Node node = nodes.get(task);
+        if (node == null)
+        {
+            return -1;
+        }
+
+        // Count everything to the left of the node on the way up to the root
+        int index = size(node.left);
+        while (node.parent != null)
+        {
+            if (node == node.parent.right)
+            {
+                index += size(node.parent.left) + 1;
+            }
+            node = node.parent;
+        }
+        return index;
+    }
+
+    @Override
+    public int lastIndexOf(Object task)
+    {
+        return indexOf(task);
+    }
+
+    // Inserts the task in sorted position, returns false if it is already in the list
+    @Override
+    public boolean add(String task)
+    {
+        if (task == null || nodes.containsKey(task))
+        {
+            return false;
+        }
+
+        Node node = new Node(task);
+        nodes.put(task, node);
+        modCount++;
+
+        if (root == null)
+        {
+            root = node;
+            return true;
+        }
+
+        // Walk down to the insert position, every node passed gains one descendant
+        Node parent = root;
+        while (true)
+        {
+            parent.size++;
+            if (node.key.compareTo(parent.key) < 0)
+            {
+                if (parent.left == null)
+                {
+                    parent.left = node;
+                    break;
+                }
+                parent = parent.left;
+            }
+            else
+            {
+                if (parent.right == null)
+                {
+                    parent.right = node;
+                    break;
+                }
+                parent = parent.right;
+            }
+        }
+        node.parent = parent;
+
+        // Restore the heap order on priorities
+        while (node.parent != null && node.priority > node.parent.priority)
+        {
+            rotateUp(node);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object task)
+    {
+        Node node = nodes.remove(task);
+        if (node == null)
+        {
+            return false;
+        }
+        modCount++;
+
+        // Rotate the node down until it has at most one child
+        while (node.left != null && node.right != null)
+        {
+            rotateUp(node.left.priority > node.right.priority ? node.left : node.right);
+        }
+
+        Node child = node.left != null ? node.left : node.right;
+        replace(node, child);
+        for (Node ancestor = node.parent; ancestor != null; ancestor = ancestor.parent)
+        {
+            ancestor.size--;
+        }
+        return true;
+    }
+
+    @Override
+    public void clear()
+    {
+        nodes.clear();
+        root = null;
+        modCount++;
+    }
+
+    // Changes every time a task is added or removed, used to tell if something built from the list is out of date
+    public int getVersion()
+    {
+        return modCount;
+    }
+
+    // Iterates in sorted order in O(n) overall
+    @Override
+    public Iterator<String> iterator()
+    {
+        return new Iterator<String>()
+        {
+            private Node next = leftmost(root);
+
+            @Override
+            public boolean hasNext()
+            {
+                return next != null;
+            }
+
+            @Override
+            public String next()
+            {
+                if (next == null)
+                {
+                    throw new NoSuchElementException();
+                }
+                Node current = next;
+                next = successor(current);
+                return current.task;
+            }
+        };
+    }
+
+    // Moves a node above its parent while keeping the sorted order
+    private void rotateUp(Node node)
+    {
+        Node parent = node.parent;
+        if (node == parent.left)
+        {
+            parent.left = node.right;
+            if (node.right != null)
+            {
+                node.right.parent = parent;
+            }
+            node.right = parent;
+        }
+        else
+        {
+            parent.right = node.left;
+            if (node.left != null)
+            {
+                node.left.parent = parent;
+            }
+            node.left = parent;
+        }
+
+        replace(parent, node);
+        parent.parent = node;
+        parent.size = 1 + size(parent.left) + size(parent.right);
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    // Puts replacement where node was in its parent
+    private void replace(Node node, Node replacement)
+    {
+        Node parent = node.parent;
+        if (replacement != null)
+        {
+            replacement.parent = parent;
+        }
+        if (parent == null)
+        {
+            root = replacement;
+        }
+        else if (parent.left == node)
+        {
+            parent.left = replacement;
+        }
+        else
+        {
+            parent.right = replacement;
+        }
+    }
+
+    private static Node leftmost(Node node)
+    {
+        while (node != null && node.left != null)
+        {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static Node successor(Node node)
+    {
+        if (node.right != null)
+        {
+            return leftmost(node.right);
+        }
+        while (node.parent != null && node == node.parent.right)
+        {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+
+    private static int size(Node node)
+    {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,21 @@
+package com.tasktracker;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import net.runelite.api.SpriteID;
+
+// Categories a task can be recognized as, declared in priority order (first match wins)
+@Getter
+@RequiredArgsConstructor
+public enum TaskCategory
+{
+    QUEST(SpriteID.TAB_QUESTS),
+    COMBAT(SpriteID.TAB_COMBAT),
+    STATS(SpriteID.TAB_STATS),
+    EQUIPMENT(SpriteID.TAB_EQUIPMENT),
+    DIARY(SpriteID.TAB_QUESTS_GREEN_ACHIEVEMENT_DIARIES),
+    GE(SpriteID.GE_GUIDE_PRICE),
+    NONE(-1);
+
+    private final int spriteId;
+}
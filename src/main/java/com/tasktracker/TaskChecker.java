@@ -1,60 +1,196 @@
 package com.tasktracker;
 
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 
+// Classifies tasks with a single pass Aho-Corasick automaton over every category keyword
+@Slf4j
 public class TaskChecker
 {
-    private static final Pattern SKILL_PATTERN = compilePattern("Attack", "Strength", "Defence", "Ranged",
+    private static final String QUESTS_RESOURCE = "/com/tasktracker/quests.txt";
+    private static final String[] SKILLS = {"Attack", "Strength", "Defence", "Ranged",
             "Prayer", "Magic", "Runecraft", "Construction", "Hitpoints", "Agility", "Herblore", "Thieving",
             "Crafting", "Fletching", "Slayer", "Hunter", "Mining", "Smithing", "Fishing", "Cooking",
-            "Firemaking", "Woodcutting", "Farming", "Sailing");
-    private static final Pattern QUEST_PATTERN = compilePattern("A Kingdom Divided", "A Night at the Theatre", "A Porcine of Interest", "A Soul's Bane", "A Tail of Two Cats", "A Taste of Hope", "Alfred Grimhand's Barcrawl", "Animal Magnetism", "Another Slice of H.A.M.", "Architectural Alliance",
-            "At First Light", "Barbarian Training", "Bear Your Soul", "Below Ice Mountain", "Between a Rock...", "Big Chompy Bird Hunter", "Biohazard", "Black Knights' Fortress", "Blood Runs Deep", "Bone Voyage",
-            "Cabin Fever", "Children of the Sun", "Clock Tower", "Cold War", "Contact!", "Cook's Assistant", "Creature of Fenkenstrain", "Curse of the Empty Lord", "Daddy's Home", "Death on the Isle",
-            "Death Plateau", "Death to the Dorgeshuun", "Demon Slayer", "Desert Treasure I", "Desert Treasure II - The Fallen Empire", "Devious Minds", "Dig Site", "Dragon Slayer I", "Dragon Slayer II", "Dream Mentor",
-            "Eadgar's Ruse", "Eagles' Peak", "Elemental Workshop I", "Elemental Workshop II", "Enakhra's Lament", "Enchanted Key", "Enlightened Journey", "Enter the Abyss", "Ernest the Chicken", "Ethical Homunculus",
-            "Fairytale I - Growing Pains", "Fairytale II - Cure a Queen", "Family Crest", "Family Pest", "Fight Arena", "Fishing Contest", "Forgettable Tale...", "Garden of Death", "Gerev's Grimoire", "Ghosts Ahoy",
-            "Giant Dwarf", "Goblin Diplomacy", "Grim Tales", "Haunted Mine", "Hazeel Cult", "Heroes' Quest", "His Faithful Servants", "Holy Grail", "Hopespear's Will", "Horror from the Deep",
-            "Icthlarin's Little Helper", "Imp Catcher", "In Aid of the Myreque", "In Search of Knowledge", "In Search of the Myreque", "Into the Tombs", "Jungle Potion", "King's Ransom", "Lair of Tarn Razorlor", "Legends' Quest",
-            "Lost City", "Lunar Diplomacy", "Mage Arena I", "Mage Arena II", "Making Friends with Myarm", "Making History", "Merlin's Crystal", "Misthalin Mystery", "Monkey Madness I", "Monkey Madness II",
-            "Monk's Friend", "Mountain Daughter", "Mourning's End Part I", "Mourning's End Part II", "Murder Mystery", "My Arm's Big Adventure", "Nature Spirit", "Observatory Quest", "Olaf's Quest", "One Small Favour",
-            "Path of Glouphrie", "Perilous Moons", "Pirate's Treasure", "Plague City", "Priest in Peril", "Prince Ali Rescue", "Rag and Bone Man I", "Rag and Bone Man II", "Ratcatchers", "Recipe for Disaster",
-            "Recruitment Drive", "Regicide", "Roving Elves", "Royal Trouble", "Rum Deal", "Rune Mysteries", "Scorpion Catcher", "Sea Slug", "Shades of Mort'ton", "Shadow of the Storm",
-            "Sheep Herder", "Sheep Shearer", "Shield of Arrav", "Shilo Village", "Sins of the Father", "Skippy and the Mogres", "Sleeping Giants", "Song of the Elves", "Spirits of the Elid", "Swan Song",
-            "Tai Bwo Wannai Trio", "Tears of Guthix", "Temple of Ikov", "Temple of the Eye", "The Ascent of Arceuus", "The Corsair Curse", "The Dig Site", "The Eyes of Glouphrie", "The Feud", "The Forsaken Tower",
-            "The Fremennik Isles", "The Fremennik Trials", "The Frozen Door", "The General's Shadow", "The Golem", "The Grand Tree", "The Hand in the Sand", "The Knight's Sword", "The Lost Tribe", "The Restless Ghost",
-            "The Ribbiting Tale of a Lily Pad Laborer", "The Slug Menace", "The Tourist Trap", "The Vault", "Throne of Miscellania", "Tower of Life", "Tree Gnome Village", "Tribal Totem", "Troll Romance", "Troll Stronghold",
-            "Twilight's Promise", "Underground Pass", "Vampyre Slayer", "Watchtower", "Waterfall Quest", "What Lies Below", "While Guthix Sleeps", "Witch's House", "Witch's Potion", "X Marks the Spot",
-            "Zogre Flesh Eaters");
-
-    public static boolean containsSkill(String text)
+            "Firemaking", "Woodcutting", "Farming", "Sailing"};
+
+    private static final TaskChecker INSTANCE = createDefault();
+
+    // Maps each character used by a keyword to a column in the transition table, 0 is any other character
+    private final Map<Character, Integer> alphabet;
+    // Columns for ASCII characters, so the common case needs no map lookup
+    private final int[] asciiColumns = new int[128];
+    private final int width;
+    // transitions[state * width + column] is the next state, every state has a transition for every column
+    private final int[] transitions;
+    // Best (lowest ordinal) category matched on reaching each state, including shorter suffix matches
+    private final TaskCategory[] outputs;
+
+    private TaskChecker(Map<TaskCategory, List<String>> keywords)
     {
-        return contains(SKILL_PATTERN,text);
+        // Build the trie
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<TaskCategory> trieOutputs = new ArrayList<>();
+        trie.add(new HashMap<>());
+        trieOutputs.add(TaskCategory.NONE);
+        alphabet = new HashMap<>();
+
+        for (Map.Entry<TaskCategory, List<String>> entry : keywords.entrySet())
+        {
+            for (String keyword : entry.getValue())
+            {
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++)
+                {
+                    char ch = Character.toLowerCase(keyword.charAt(i));
+                    alphabet.putIfAbsent(ch, alphabet.size() + 1);
+                    Integer next = trie.get(state).get(ch);
+                    if (next == null)
+                    {
+                        next = trie.size();
+                        trie.add(new HashMap<>());
+                        trieOutputs.add(TaskCategory.NONE);
+                        trie.get(state).put(ch, next);
+                    }
+                    state = next;
+                }
+                trieOutputs.set(state, higherPriority(trieOutputs.get(state), entry.getKey()));
+            }
+        }
+
+        for (Map.Entry<Character, Integer> column : alphabet.entrySet())
+        {
+            if (column.getKey() < asciiColumns.length)
+            {
+                asciiColumns[column.getKey()] = column.getValue();
+            }
+        }
+
+        // Resolve failure links breadth first into a full transition table
+        width = alphabet.size() + 1;
+        transitions = new int[trie.size() * width];
+        outputs = trieOutputs.toArray(new TaskCategory[0]);
+        int[] fail = new int[trie.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+
+        for (Map.Entry<Character, Integer> edge : trie.get(0).entrySet())
+        {
+            transitions[alphabet.get(edge.getKey())] = edge.getValue();
+            queue.add(edge.getValue());
+        }
+
+        while (!queue.isEmpty())
+        {
+            int state = queue.poll();
+            outputs[state] = higherPriority(outputs[state], outputs[fail[state]]);
+
+            // Characters without an edge follow the failure state
+            System.arraycopy(transitions, fail[state] * width, transitions, state * width, width);
+
+            for (Map.Entry<Character, Integer> edge : trie.get(state).entrySet())
+            {
+                int column = alphabet.get(edge.getKey());
+                int child = edge.getValue();
+                fail[child] = transitions[fail[state] * width + column];
+                transitions[state * width + column] = child;
+                queue.add(child);
+            }
+        }
     }
 
-    public static boolean containsQuest(String text)
+    // Returns the highest priority category found in the text, scanning it once
+    public static TaskCategory classify(String text)
     {
-        return contains(QUEST_PATTERN,text);
+        return INSTANCE.match(text);
     }
 
-    private static boolean contains(Pattern pattern, String text)
+    private TaskCategory match(String text)
     {
+        TaskCategory best = TaskCategory.NONE;
         if (text == null)
         {
-            return false;
+            return best;
+        }
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++)
+        {
+            char ch = Character.toLowerCase(text.charAt(i));
+            int column = ch < asciiColumns.length ? asciiColumns[ch] : alphabet.getOrDefault(ch, 0);
+            state = transitions[state * width + column];
+            best = higherPriority(best, outputs[state]);
+            if (best == TaskCategory.QUEST)
+            {
+                // Nothing can outrank a quest
+                break;
+            }
         }
-        return pattern.matcher(text).find();
+        return best;
+    }
+
+    private static TaskCategory higherPriority(TaskCategory a, TaskCategory b)
+    {
+        return a.ordinal() <= b.ordinal() ? a : b;
+    }
+
+    private static TaskChecker createDefault()
+    {
+        List<String> quests = new ArrayList<>(loadQuests());
+        quests.add("quest");
+
+        List<String> stats = new ArrayList<>(Arrays.asList(SKILLS));
+        stats.add("level");
+        stats.add("xp");
+
+        Map<TaskCategory, List<String>> keywords = new HashMap<>();
+        keywords.put(TaskCategory.QUEST, quests);
+        keywords.put(TaskCategory.COMBAT, Arrays.asList("kill", "slayer"));
+        keywords.put(TaskCategory.STATS, stats);
+        keywords.put(TaskCategory.EQUIPMENT, Collections.singletonList("obtain"));
+        keywords.put(TaskCategory.DIARY, Collections.singletonList("diary"));
+        keywords.put(TaskCategory.GE, Collections.singletonList("buy"));
+        return new TaskChecker(keywords);
     }
 
-    private static Pattern compilePattern(String... terms)
+    // Loads the quest names, one per line, from the bundled quest list
+    private static List<String> loadQuests()
     {
-        String regex = Arrays.stream(terms)
-                .map(Pattern::quote) // Safely handles special characters like "..."
-                .collect(Collectors.joining("|"));
+        List<String> quests = new ArrayList<>();
+        try (InputStream stream = TaskChecker.class.getResourceAsStream(QUESTS_RESOURCE))
+        {
+            if (stream == null)
+            {
+                log.warn("Quest list not found: {}", QUESTS_RESOURCE);
+                return quests;
+            }
 
-        return Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if (!line.isEmpty())
+                {
+                    quests.add(line);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            log.error("Failed to load quest list", e);
+        }
+        return quests;
     }
 
 }
@@ -0,0 +1,361 @@
+package com.tasktracker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact versioned binary encoding of the task data shards, completed times are varint encoded deltas
+// A month of completed tasks writes each task name once to a dictionary, the whole data format written before the
+// data was split into shards shared one dictionary between all lists and is only read to migrate it
+// Corrupt or truncated values throw IllegalArgumentException before anything is added to the data being loaded
+public final class TaskDataCodec
+{
+    // Marks a config value as Base64 binary data, json always starts with '{' so the two can't be confused
+    public static final String PREFIX = "ttb:";
+    private static final int VERSION = 2;
+
+    private TaskDataCodec()
+    {
+    }
+
+    // Helper function to check if a stored config value is in the binary format
+    public static boolean isEncoded(String value)
+    {
+        return value != null && value.startsWith(PREFIX);
+    }
+
+    public static TaskTrackerData decodeFromString(String value)
+    {
+        return decode(Base64.getDecoder().decode(value.substring(PREFIX.length())));
+    }
+
+    // Encodes a single list of tasks, used for the list shards
+    public static String encodeTasks(Collection<String> tasks)
+    {
+        Writer out = new Writer(16 + tasks.size() * 16);
+        out.writeVarInt(VERSION);
+        out.writeVarInt(tasks.size());
+        for (String task : tasks)
+        {
+            out.writeString(task);
+        }
+        return PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    public static void decodeTasks(String value, Collection<String> tasks)
+    {
+        Reader in = new Reader(Base64.getDecoder().decode(value.substring(PREFIX.length())));
+        readVersion(in);
+        String[] decoded = new String[in.readCount()];
+        for (int i = 0; i < decoded.length; i++)
+        {
+            decoded[i] = in.readString(in.readVarInt());
+        }
+        in.finish();
+        tasks.addAll(Arrays.asList(decoded));
+    }
+
+    // Encodes task roll weights, used for the weights shard
+    public static String encodeWeights(Map<String, Double> weights)
+    {
+        Writer out = new Writer(16 + weights.size() * 24);
+        out.writeVarInt(VERSION);
+        out.writeVarInt(weights.size());
+        for (Map.Entry<String, Double> weight : weights.entrySet())
+        {
+            out.writeString(weight.getKey());
+            out.writeVarLong(Double.doubleToLongBits(weight.getValue()));
+        }
+        return PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    public static void decodeWeights(String value, Map<String, Double> weights)
+    {
+        Reader in = new Reader(Base64.getDecoder().decode(value.substring(PREFIX.length())));
+        readVersion(in);
+        int count = in.readCount();
+        Map<String, Double> decoded = new HashMap<>();
+        for (int i = 0; i < count; i++)
+        {
+            String task = in.readString(in.readVarInt());
+            decoded.put(task, Double.longBitsToDouble(in.readVarLong()));
+        }
+        in.finish();
+        weights.putAll(decoded);
+    }
+
+    // Encodes the completed tasks in [from, to), used for the monthly history shards
+    public static String encodeCompleted(CompletedTaskHistory completed, int from, int to)
+    {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        for (int i = from; i < to; i++)
+        {
+            idOf(completed.getTask(i), ids, dictionary);
+        }
+
+        Writer out = new Writer(16 + (to - from) * 4);
+        out.writeVarInt(VERSION);
+        out.writeVarInt(dictionary.size());
+        for (String task : dictionary)
+        {
+            out.writeString(task);
+        }
+        writeCompleted(out, completed, from, to, ids);
+        return PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    // Adds the decoded tasks to the history in time order
+    public static void decodeCompleted(String value, CompletedTaskHistory completed)
+    {
+        Reader in = new Reader(Base64.getDecoder().decode(value.substring(PREFIX.length())));
+        readVersion(in);
+        String[] dictionary = readDictionary(in);
+        CompletedTaskHistory decoded = new CompletedTaskHistory();
+        readCompleted(in, dictionary, decoded);
+        in.finish();
+        for (int i = 0; i < decoded.size(); i++)
+        {
+            completed.insert(decoded.get(i));
+        }
+    }
+
+    // Reads the whole data format from before the shards, version 1 has no journal epoch or sequence
+    public static TaskTrackerData decode(byte[] bytes)
+    {
+        Reader in = new Reader(bytes);
+        int version = readVersion(in);
+        String[] dictionary = readDictionary(in);
+
+        TaskTrackerData data = new TaskTrackerData();
+        int currentId = in.readVarInt();
+        data.setCurrentTask(currentId == 0 ? "" : in.readTask(dictionary, currentId - 1));
+        readIds(in, dictionary, data.getActive());
+        readIds(in, dictionary, data.getBacklog());
+        readIds(in, dictionary, data.getRepeatableTasks());
+
+        readCompleted(in, dictionary, data.getCompleted());
+
+        if (version >= 2)
+        {
+            data.setJournalEpoch(in.readVarLong());
+            data.setJournalSequence(in.readVarLong());
+        }
+        in.finish();
+
+        return data;
+    }
+
+    private static int readVersion(Reader in)
+    {
+        int version = in.readVarInt();
+        if (version < 1 || version > VERSION)
+        {
+            throw new IllegalArgumentException("Unsupported task data version: " + version);
+        }
+        return version;
+    }
+
+    private static String[] readDictionary(Reader in)
+    {
+        String[] dictionary = new String[in.readCount()];
+        for (int i = 0; i < dictionary.length; i++)
+        {
+            dictionary[i] = in.readString(in.readVarInt());
+        }
+        return dictionary;
+    }
+
+    // Completed tasks are sorted oldest first, so deltas are small and usually positive
+    private static void writeCompleted(Writer out, CompletedTaskHistory completed, int from, int to, Map<String, Integer> ids)
+    {
+        out.writeVarInt(to - from);
+        long previous = 0;
+        for (int i = from; i < to; i++)
+        {
+            long completedAt = completed.getCompletedAt(i);
+            out.writeVarLong(zigZag(completedAt - previous));
+            out.writeVarInt(ids.get(completed.getTask(i)));
+            previous = completedAt;
+        }
+    }
+
+    private static void readCompleted(Reader in, String[] dictionary, CompletedTaskHistory completed)
+    {
+        int count = in.readCount();
+        long completedAt = 0;
+        for (int i = 0; i < count; i++)
+        {
+            completedAt += unZigZag(in.readVarLong());
+            completed.insert(new CompletedTask(completedAt, in.readTask(dictionary, in.readVarInt())));
+        }
+    }
+
+    private static void idOf(String task, Map<String, Integer> ids, List<String> dictionary)
+    {
+        if (task != null && !ids.containsKey(task))
+        {
+            ids.put(task, dictionary.size());
+            dictionary.add(task);
+        }
+    }
+
+    private static void readIds(Reader in, String[] dictionary, Collection<String> tasks)
+    {
+        int count = in.readCount();
+        for (int i = 0; i < count; i++)
+        {
+            tasks.add(in.readTask(dictionary, in.readVarInt()));
+        }
+    }
+
+    private static long zigZag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Growable byte buffer with LEB128 varint writes
+    private static final class Writer
+    {
+        private byte[] buffer;
+        private int position;
+
+        private Writer(int capacity)
+        {
+            buffer = new byte[capacity];
+        }
+
+        private void writeVarInt(int value)
+        {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value)
+        {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0)
+            {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeString(String value)
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            writeBytes(bytes);
+        }
+
+        private void writeBytes(byte[] bytes)
+        {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensureCapacity(int extra)
+        {
+            if (position + extra > buffer.length)
+            {
+                buffer = Arrays.copyOf(buffer, Math.max(position + extra, buffer.length * 2));
+            }
+        }
+
+        private byte[] toByteArray()
+        {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader
+    {
+        private final byte[] buffer;
+        private int position;
+
+        private Reader(byte[] buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        private int readVarInt()
+        {
+            long value = readVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE)
+            {
+                throw new IllegalArgumentException("Corrupt task data: count out of range");
+            }
+            return (int) value;
+        }
+
+        // Number of items that follow, each takes at least one byte so a count past the end can't be allocated
+        private int readCount()
+        {
+            int count = readVarInt();
+            if (count > buffer.length - position)
+            {
+                throw new IllegalArgumentException("Corrupt task data: unexpected end of data");
+            }
+            return count;
+        }
+
+        private String readTask(String[] dictionary, int id)
+        {
+            if (id >= dictionary.length)
+            {
+                throw new IllegalArgumentException("Corrupt task data: task id out of range");
+            }
+            return dictionary[id];
+        }
+
+        // Every byte must have been read, anything left means the value is not what was written
+        private void finish()
+        {
+            if (position != buffer.length)
+            {
+                throw new IllegalArgumentException("Corrupt task data: unexpected data after the end");
+            }
+        }
+
+        private long readVarLong()
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7)
+            {
+                if (position >= buffer.length)
+                {
+                    throw new IllegalArgumentException("Corrupt task data: unexpected end of data");
+                }
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Corrupt task data: varint too long");
+        }
+
+        private String readString(int length)
+        {
+            if (length > buffer.length - position)
+            {
+                throw new IllegalArgumentException("Corrupt task data: unexpected end of data");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.tasktracker;
+
+import lombok.extern.slf4j.Slf4j;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+// Write-behind persistence, bursts of changes are merged into a single write on a background thread
+@Slf4j
+public class TaskDataPersister<T>
+{
+    private final Supplier<T> serializer;
+    private final Consumer<T> writer;
+    private final IntSupplier delaySupplier;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    // Guards serialize + write so writes always land in the order they were serialized
+    private final Object writeLock = new Object();
+
+    private boolean dirty;
+    private ScheduledFuture<?> pendingWrite;
+
+    public TaskDataPersister(Supplier<T> serializer, Consumer<T> writer, IntSupplier delaySupplier)
+    {
+        this.serializer = serializer;
+        this.writer = writer;
+        this.delaySupplier = delaySupplier;
+    }
+
+    // Marks the data as changed and schedules a write if one is not already pending
+    public synchronized void markDirty()
+    {
+        dirty = true;
+        if (pendingWrite == null && !executor.isShutdown())
+        {
+            pendingWrite = executor.schedule(this::flush, Math.max(0, delaySupplier.getAsInt()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Schedules a write without waiting out the delay, for changes that can't be recovered from the journal
+    public synchronized void saveNow()
+    {
+        dirty = true;
+        if (pendingWrite != null)
+        {
+            pendingWrite.cancel(false);
+            pendingWrite = null;
+        }
+        if (!executor.isShutdown())
+        {
+            pendingWrite = executor.schedule(this::flush, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Writes the data now if it has changed since the last write
+    public void flush()
+    {
+        synchronized (writeLock)
+        {
+            synchronized (this)
+            {
+                pendingWrite = null;
+                if (!dirty)
+                {
+                    return;
+                }
+                dirty = false;
+            }
+
+            try
+            {
+                writer.accept(serializer.get());
+            }
+            catch (Exception e)
+            {
+                log.error("Failed to save task data", e);
+                markDirty();
+            }
+        }
+    }
+
+    // Runs a task on the write thread, ordered with the writes around it
+    public void execute(Runnable task)
+    {
+        executor.execute(() ->
+        {
+            try
+            {
+                task.run();
+            }
+            catch (Exception e)
+            {
+                log.error("Task data background task failed", e);
+            }
+        });
+    }
+
+    // Stops the background thread and makes sure the latest data is written
+    public void shutDown()
+    {
+        synchronized (this)
+        {
+            // Write right away instead of waiting out the delay
+            if (pendingWrite != null)
+            {
+                pendingWrite.cancel(false);
+                pendingWrite = null;
+            }
+        }
+        executor.shutdown();
+        try
+        {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS))
+            {
+                log.warn("Timed out waiting for pending task data write");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,635 @@
+package com.tasktracker;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.config.ConfigManager;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Task data saved across several config keys, so a change only rewrites the keys it touched
+// The current task, active, backlog and repeatable lists, task weights and roll bag each have a key, completed tasks have a key per month (UTC)
+// A manifest key lists the months and the journal position of the saved data, it is written last
+// Every key except the months is a declared config item, so Reset clears them, month keys left without a manifest are
+// removed on the next save
+@Slf4j
+public class TaskDataShards
+{
+    public static final String GROUP = "tasktracker";
+    public static final String MANIFEST_KEY = "shardManifest";
+    public static final String CURRENT_KEY = "currentTask";
+    public static final String ACTIVE_KEY = "activeTasks";
+    public static final String BACKLOG_KEY = "backlogTasks";
+    public static final String REPEATABLE_KEY = "repeatableTasks";
+    public static final String WEIGHTS_KEY = "taskWeights";
+    public static final String BAG_KEY = "rollBag";
+    // Single key layout used before sharding
+    public static final String LEGACY_KEY = "allTasksJson";
+
+    private static final String MONTH_PREFIX = "completed_";
+    private static final int MANIFEST_VERSION = 1;
+    private static final List<String> LIST_KEYS = Arrays.asList(CURRENT_KEY, ACTIVE_KEY, BACKLOG_KEY, REPEATABLE_KEY, WEIGHTS_KEY, BAG_KEY);
+
+    private final ConfigManager configManager;
+    private final TaskTrackerDataAdapter legacyAdapter = new TaskTrackerDataAdapter();
+    private final CompletedTaskAdapter completedTaskAdapter = new CompletedTaskAdapter();
+
+    // Value of every key as last loaded or written, unchanged shards are skipped and our own writes recognized
+    private final Map<String, String> savedValues = new HashMap<>();
+    private final Set<String> dirtyKeys = new LinkedHashSet<>();
+    private boolean allDirty;
+    private boolean legacyPresent;
+    // Month keys listed in the loaded manifest
+    private List<String> manifestMonths = new ArrayList<>();
+    // Listed months whose value could not be read, kept in the manifest and never rewritten unless they get new entries
+    private final Set<String> unreadableMonths = new TreeSet<>();
+    // Set when the sharded data could not be read at all, nothing is saved until the data is loaded again
+    private boolean readOnly;
+
+    public TaskDataShards(ConfigManager configManager)
+    {
+        this.configManager = configManager;
+    }
+
+    // Helper function to check if a config key holds task data
+    public static boolean isShardKey(String key)
+    {
+        return key.equals(MANIFEST_KEY) || LIST_KEYS.contains(key) || key.startsWith(MONTH_PREFIX);
+    }
+
+    // Helper function to check if a config value is the one we loaded or wrote last
+    public synchronized boolean isSavedValue(String key, String value)
+    {
+        return Objects.equals(emptyToNull(savedValues.get(key)), emptyToNull(value));
+    }
+
+    // Loads the manifest and the small shards, the completed history is left empty for loadHistory
+    // Returns null when nothing has been saved in this layout yet
+    public synchronized TaskTrackerData loadHot()
+    {
+        reset();
+
+        String manifest = get(MANIFEST_KEY);
+        if (manifest == null)
+        {
+            return null;
+        }
+
+        // version;journal epoch;journal sequence;months
+        String[] fields = manifest.split(";", -1);
+        if (fields.length != 4 || !fields[0].equals(String.valueOf(MANIFEST_VERSION)))
+        {
+            throw new IllegalArgumentException("Unsupported task data manifest: " + manifest);
+        }
+        TaskTrackerData data = new TaskTrackerData();
+        data.setJournalEpoch(Long.parseLong(fields[1]));
+        data.setJournalSequence(Long.parseLong(fields[2]));
+        manifestMonths = new ArrayList<>();
+        for (String month : fields[3].split(","))
+        {
+            if (!month.isEmpty())
+            {
+                manifestMonths.add(MONTH_PREFIX + month);
+            }
+        }
+        savedValues.put(MANIFEST_KEY, manifest);
+
+        String currentTask = get(CURRENT_KEY);
+        data.setCurrentTask(currentTask == null ? "" : currentTask);
+        savedValues.put(CURRENT_KEY, currentTask);
+        readTasks(ACTIVE_KEY, data.getActive());
+        readTasks(BACKLOG_KEY, data.getBacklog());
+        readTasks(REPEATABLE_KEY, data.getRepeatableTasks());
+        readWeights(data.getTaskWeights());
+        // Only the tasks drawn this round are saved, the rest of the bag is the other active tasks
+        List<String> drawnTasks = new ArrayList<>();
+        readTasks(BAG_KEY, drawnTasks);
+        data.getRollBag().sync(data.getActive());
+        for (String task : drawnTasks)
+        {
+            data.getRollBag().markDrawn(task);
+        }
+        return data;
+    }
+
+    // Loads every month listed in the manifest, reads config only so it can run off the client thread
+    public CompletedTaskHistory loadHistory()
+    {
+        // Replaced by every load, so results of a load that was overtaken by another one are not recorded
+        List<String> months;
+        synchronized (this)
+        {
+            months = manifestMonths;
+        }
+
+        CompletedTaskHistory completed = new CompletedTaskHistory();
+        for (String key : months)
+        {
+            String value;
+            try
+            {
+                value = get(key);
+                if (value == null)
+                {
+                    log.warn("Missing completed task data for {}", key);
+                    continue;
+                }
+                if (TaskDataCodec.isEncoded(value))
+                {
+                    TaskDataCodec.decodeCompleted(value, completed);
+                }
+                else
+                {
+                    readCompletedJson(value, completed);
+                }
+            }
+            catch (RuntimeException e)
+            {
+                // The rest of the history still loads, the month's key is left as it is
+                log.error("Could not read completed task data for {}, skipping it", key, e);
+                synchronized (this)
+                {
+                    if (manifestMonths == months)
+                    {
+                        unreadableMonths.add(key);
+                    }
+                }
+                continue;
+            }
+            synchronized (this)
+            {
+                if (manifestMonths == months)
+                {
+                    savedValues.put(key, value);
+                }
+            }
+        }
+        return completed;
+    }
+
+    // Loads data saved in the single key layout, or new data when there is none
+    // Every shard is written on the next save and the old key is removed once they are
+    public synchronized TaskTrackerData loadLegacy()
+    {
+        reset();
+        // Month keys without a manifest are left over from a config reset and must not come back
+        List<String> keys = configManager.getConfigurationKeys(GROUP + "." + MONTH_PREFIX);
+        if (keys != null)
+        {
+            for (String key : keys)
+            {
+                String month = key.substring(GROUP.length() + 1);
+                String value = get(month);
+                if (value != null)
+                {
+                    savedValues.put(month, value);
+                }
+            }
+        }
+        allDirty = true;
+
+        String value = get(LEGACY_KEY);
+        if (value == null)
+        {
+            return new TaskTrackerData();
+        }
+        legacyPresent = true;
+        return decodeLegacy(value);
+    }
+
+    // Loads the single key data when the sharded data can't be read, e.g. a manifest written by a newer version
+    // Saving is suspended until the next load, so none of the keys that could not be read are overwritten
+    public synchronized TaskTrackerData loadFallback()
+    {
+        reset();
+        readOnly = true;
+        String value = get(LEGACY_KEY);
+        if (value == null)
+        {
+            return new TaskTrackerData();
+        }
+        try
+        {
+            return decodeLegacy(value);
+        }
+        catch (RuntimeException e)
+        {
+            log.error("Could not read the single key task data either, starting empty", e);
+            return new TaskTrackerData();
+        }
+    }
+
+    // Marks the shards a change will touch, must be called before the change is applied
+    public synchronized void markDirty(TaskTrackerData data, TaskOperation operation, String[] args)
+    {
+        switch (operation)
+        {
+            case SET_CURRENT:
+                dirtyKeys.add(CURRENT_KEY);
+                break;
+            case DRAW:
+                dirtyKeys.add(CURRENT_KEY);
+                dirtyKeys.add(BAG_KEY);
+                break;
+            case COMPLETE:
+                dirtyKeys.add(CURRENT_KEY);
+                dirtyKeys.add(ACTIVE_KEY);
+                dirtyKeys.add(BAG_KEY);
+                dirtyKeys.add(monthKey(Long.parseLong(args[0])));
+                break;
+            case BACKLOG:
+                dirtyKeys.add(CURRENT_KEY);
+                dirtyKeys.add(ACTIVE_KEY);
+                dirtyKeys.add(BACKLOG_KEY);
+                dirtyKeys.add(BAG_KEY);
+                break;
+            case DELETE:
+            case MOVE_TO_ACTIVE:
+                dirtyKeys.add(ACTIVE_KEY);
+                dirtyKeys.add(BACKLOG_KEY);
+                dirtyKeys.add(BAG_KEY);
+                if (args[0].equals(TaskTrackerPanel.completedString))
+                {
+                    markMonthsDirty(data.getCompleted(), args[1]);
+                }
+                break;
+            case SET_REPEATABLE:
+                dirtyKeys.add(REPEATABLE_KEY);
+                break;
+            case SET_WEIGHT:
+                dirtyKeys.add(WEIGHTS_KEY);
+                break;
+            default:
+                allDirty = true;
+                break;
+        }
+    }
+
+    // Marks a single shard, e.g. after a list was edited as a whole
+    public synchronized void markDirty(String key)
+    {
+        dirtyKeys.add(key);
+    }
+
+    // Marks the month shard holding a completion time
+    public synchronized void markCompletedDirty(long completedAt)
+    {
+        dirtyKeys.add(monthKey(completedAt));
+    }
+
+    // Marks every shard, unchanged ones are still skipped when saving
+    public synchronized void markAllDirty()
+    {
+        allDirty = true;
+    }
+
+    // Encodes the changed shards and the manifest, a null value means the key should be removed
+    public synchronized Map<String, String> serialize(TaskTrackerData data, boolean compact)
+    {
+        if (readOnly)
+        {
+            dirtyKeys.clear();
+            allDirty = false;
+            return Collections.emptyMap();
+        }
+        CompletedTaskHistory completed = data.getCompleted();
+        Map<String, int[]> months = monthRanges(completed);
+
+        Set<String> keys = new LinkedHashSet<>(dirtyKeys);
+        if (allDirty)
+        {
+            keys.addAll(LIST_KEYS);
+            keys.addAll(months.keySet());
+            for (String key : savedValues.keySet())
+            {
+                if (key.startsWith(MONTH_PREFIX))
+                {
+                    keys.add(key);
+                }
+            }
+        }
+
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (String key : keys)
+        {
+            if (unreadableMonths.contains(key))
+            {
+                if (!months.containsKey(key))
+                {
+                    continue;
+                }
+                log.warn("Replacing unreadable completed task data for {} with the tasks completed since", key);
+                unreadableMonths.remove(key);
+            }
+            String value = encode(key, data, months, compact);
+            if (!isSavedValue(key, value))
+            {
+                changes.put(key, value);
+            }
+        }
+        if (legacyPresent)
+        {
+            changes.put(LEGACY_KEY, null);
+        }
+
+        StringBuilder manifest = new StringBuilder()
+                .append(MANIFEST_VERSION).append(';')
+                .append(data.getJournalEpoch()).append(';')
+                .append(data.getJournalSequence()).append(';');
+        Set<String> manifestKeys = new TreeSet<>(months.keySet());
+        manifestKeys.addAll(unreadableMonths);
+        for (String key : manifestKeys)
+        {
+            if (manifest.charAt(manifest.length() - 1) != ';')
+            {
+                manifest.append(',');
+            }
+            manifest.append(key, MONTH_PREFIX.length(), key.length());
+        }
+        // Written last, so the months it lists are always saved before it
+        if (!changes.isEmpty() || !isSavedValue(MANIFEST_KEY, manifest.toString()))
+        {
+            changes.put(MANIFEST_KEY, manifest.toString());
+        }
+
+        dirtyKeys.clear();
+        allDirty = false;
+        return changes;
+    }
+
+    // Records values that are about to be written, call before writing so their config change events are recognized
+    public synchronized void saved(Map<String, String> changes)
+    {
+        for (Map.Entry<String, String> change : changes.entrySet())
+        {
+            if (change.getValue() == null)
+            {
+                savedValues.remove(change.getKey());
+            }
+            else
+            {
+                savedValues.put(change.getKey(), change.getValue());
+            }
+        }
+        if (changes.containsKey(LEGACY_KEY))
+        {
+            legacyPresent = false;
+        }
+    }
+
+    // Helper function to forget everything known about the saved keys before loading them again
+    private void reset()
+    {
+        savedValues.clear();
+        dirtyKeys.clear();
+        allDirty = false;
+        legacyPresent = false;
+        readOnly = false;
+        manifestMonths = new ArrayList<>();
+        unreadableMonths.clear();
+    }
+
+    private TaskTrackerData decodeLegacy(String value)
+    {
+        if (TaskDataCodec.isEncoded(value))
+        {
+            return TaskDataCodec.decodeFromString(value);
+        }
+        try
+        {
+            return legacyAdapter.fromJson(value);
+        }
+        catch (IOException e)
+        {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private String encode(String key, TaskTrackerData data, Map<String, int[]> months, boolean compact)
+    {
+        switch (key)
+        {
+            case CURRENT_KEY:
+                return emptyToNull(data.getCurrentTask());
+            case ACTIVE_KEY:
+                return encodeTasks(data.getActive(), compact);
+            case BACKLOG_KEY:
+                return encodeTasks(data.getBacklog(), compact);
+            case REPEATABLE_KEY:
+                return encodeTasks(data.getRepeatableTasks(), compact);
+            case WEIGHTS_KEY:
+                return encodeWeights(data.getTaskWeights(), compact);
+            case BAG_KEY:
+                return encodeTasks(data.getRollBag().getDrawnTasks(), compact);
+            default:
+                int[] range = months.get(key);
+                if (range == null)
+                {
+                    return null;
+                }
+                if (compact)
+                {
+                    return TaskDataCodec.encodeCompleted(data.getCompleted(), range[0], range[1]);
+                }
+                return completedToJson(data.getCompleted(), range[0], range[1]);
+        }
+    }
+
+    // Index range of each month in the history, found by searching instead of visiting every entry
+    private static Map<String, int[]> monthRanges(CompletedTaskHistory completed)
+    {
+        Map<String, int[]> ranges = new TreeMap<>();
+        for (int from = 0, to; from < completed.size(); from = to)
+        {
+            YearMonth month = yearMonth(completed.getCompletedAt(from));
+            long nextMonth = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            to = completed.indexAfter(nextMonth - 1);
+            ranges.put(MONTH_PREFIX + month, new int[]{from, to});
+        }
+        return ranges;
+    }
+
+    private void markMonthsDirty(CompletedTaskHistory completed, String task)
+    {
+        for (int i = 0; i < completed.size(); i++)
+        {
+            if (completed.getTask(i).equals(task))
+            {
+                dirtyKeys.add(monthKey(completed.getCompletedAt(i)));
+            }
+        }
+    }
+
+    private static String monthKey(long time)
+    {
+        return MONTH_PREFIX + yearMonth(time);
+    }
+
+    private static YearMonth yearMonth(long time)
+    {
+        return YearMonth.from(Instant.ofEpochMilli(time).atOffset(ZoneOffset.UTC));
+    }
+
+    private void readTasks(String key, Collection<String> tasks)
+    {
+        String value = get(key);
+        savedValues.put(key, value);
+        if (value == null)
+        {
+            return;
+        }
+        if (TaskDataCodec.isEncoded(value))
+        {
+            TaskDataCodec.decodeTasks(value, tasks);
+            return;
+        }
+        try (JsonReader in = new JsonReader(new StringReader(value)))
+        {
+            TaskTrackerDataAdapter.readTasks(in, tasks);
+        }
+        catch (IOException e)
+        {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private void readWeights(Map<String, Double> weights)
+    {
+        String value = get(WEIGHTS_KEY);
+        savedValues.put(WEIGHTS_KEY, value);
+        if (value == null)
+        {
+            return;
+        }
+        if (TaskDataCodec.isEncoded(value))
+        {
+            TaskDataCodec.decodeWeights(value, weights);
+            return;
+        }
+        try (JsonReader in = new JsonReader(new StringReader(value)))
+        {
+            in.beginObject();
+            while (in.hasNext())
+            {
+                weights.put(in.nextName(), in.nextDouble());
+            }
+            in.endObject();
+        }
+        catch (IOException e)
+        {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    // Reads a whole month before adding any of it, so a month that fails halfway adds nothing
+    private void readCompletedJson(String value, CompletedTaskHistory completed)
+    {
+        List<CompletedTask> month = new ArrayList<>();
+        try (JsonReader in = new JsonReader(new StringReader(value)))
+        {
+            in.beginArray();
+            while (in.hasNext())
+            {
+                CompletedTask task = completedTaskAdapter.read(in);
+                if (task != null && task.getTask() != null)
+                {
+                    month.add(task);
+                }
+            }
+            in.endArray();
+        }
+        catch (IOException e)
+        {
+            throw new JsonSyntaxException(e);
+        }
+        month.forEach(completed::insert);
+    }
+
+    private static String encodeTasks(Collection<String> tasks, boolean compact)
+    {
+        if (compact)
+        {
+            return TaskDataCodec.encodeTasks(tasks);
+        }
+        StringWriter json = new StringWriter();
+        try (JsonWriter out = new JsonWriter(json))
+        {
+            TaskTrackerDataAdapter.writeTasks(out, tasks);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        return json.toString();
+    }
+
+    private static String encodeWeights(Map<String, Double> weights, boolean compact)
+    {
+        if (compact)
+        {
+            return TaskDataCodec.encodeWeights(weights);
+        }
+        StringWriter json = new StringWriter();
+        try (JsonWriter out = new JsonWriter(json))
+        {
+            out.beginObject();
+            for (Map.Entry<String, Double> weight : weights.entrySet())
+            {
+                out.name(weight.getKey()).value(weight.getValue());
+            }
+            out.endObject();
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        return json.toString();
+    }
+
+    private String completedToJson(CompletedTaskHistory completed, int from, int to)
+    {
+        StringWriter json = new StringWriter();
+        try (JsonWriter out = new JsonWriter(json))
+        {
+            out.beginArray();
+            for (int i = from; i < to; i++)
+            {
+                completedTaskAdapter.write(out, completed.get(i));
+            }
+            out.endArray();
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        return json.toString();
+    }
+
+    private String get(String key)
+    {
+        return emptyToNull(configManager.getConfiguration(GROUP, key));
+    }
+
+    private static String emptyToNull(String value)
+    {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
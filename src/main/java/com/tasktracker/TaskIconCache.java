@@ -0,0 +1,60 @@
+package com.tasktracker;
+
+import net.runelite.client.game.SpriteManager;
+import net.runelite.client.util.ImageUtil;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Category icons keyed by sprite ID, each sprite is requested once and its icons are shared by every row
+public class TaskIconCache
+{
+    public static final int ROW_ICON_SIZE = 16;
+
+    private final SpriteManager spriteManager;
+    private final Map<Integer, ImageIcon> icons = new ConcurrentHashMap<>();
+    private final Map<Integer, ImageIcon> rowIcons = new ConcurrentHashMap<>();
+
+    public TaskIconCache(SpriteManager spriteManager)
+    {
+        this.spriteManager = spriteManager;
+    }
+
+    // Requests every category sprite once, onLoaded is run on the EDT after each one arrives
+    public void warm(Runnable onLoaded)
+    {
+        for (TaskCategory category : TaskCategory.values())
+        {
+            int spriteId = category.getSpriteId();
+            if (spriteId == -1 || icons.containsKey(spriteId))
+            {
+                continue;
+            }
+
+            spriteManager.getSpriteAsync(spriteId, 0, (BufferedImage img) ->
+            {
+                if (img == null)
+                {
+                    return;
+                }
+                rowIcons.put(spriteId, new ImageIcon(ImageUtil.resizeImage(img, ROW_ICON_SIZE, ROW_ICON_SIZE)));
+                icons.put(spriteId, new ImageIcon(img));
+                SwingUtilities.invokeLater(onLoaded);
+            });
+        }
+    }
+
+    // Full size icon for a category, or null if it has none or it has not loaded yet
+    public ImageIcon getIcon(TaskCategory category)
+    {
+        return icons.get(category.getSpriteId());
+    }
+
+    // Icon resized to fit a list row, or null if it has none or it has not loaded yet
+    public ImageIcon getRowIcon(TaskCategory category)
+    {
+        return rowIcons.get(category.getSpriteId());
+    }
+}
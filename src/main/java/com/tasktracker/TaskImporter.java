@@ -0,0 +1,270 @@
+package com.tasktracker;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Parses the text of the edit dialogs, one task per line
+// Every bad line is collected into a single report, callers only apply the result when there are no errors
+// Completed task lines are parsed in parallel chunks, java.time formatters are immutable so they can be shared
+public final class TaskImporter
+{
+    // Lines per chunk of completed tasks parsed on one thread
+    static final int CHUNK_LINES = 4096;
+    // Errors listed in the report, any more are only counted
+    static final int MAX_REPORTED_ERRORS = 25;
+
+    private TaskImporter()
+    {
+    }
+
+    // Helper function to build a strict parser for a timestamp pattern
+    // Single digit days, months and hours are accepted as well (e.g. 1/5/2024 9:05), invalid dates like 02/30 are not
+    public static DateTimeFormatter parserFor(String pattern)
+    {
+        String parsePattern = pattern
+                .replace("yyyy", "uuuu")
+                .replace("MM", "M")
+                .replace("dd", "d")
+                .replace("HH", "H");
+        return DateTimeFormatter.ofPattern(parsePattern).withResolverStyle(ResolverStyle.STRICT);
+    }
+
+    // Active and backlog lines, duplicates and blank lines are dropped
+    public static SortedTaskList parseTasks(String text)
+    {
+        SortedTaskList tasks = new SortedTaskList();
+        for (int start = 0; start <= text.length(); )
+        {
+            int end = lineEnd(text, start);
+            String task = text.substring(start, end).trim();
+            if (!task.isEmpty())
+            {
+                tasks.add(task);
+            }
+            start = end + 1;
+        }
+        return tasks;
+    }
+
+    // Completed task lines in the form "[Date] - [Task Name]"
+    public static CompletedImport parseCompleted(String text, DateTimeFormatter parser, String expectedFormat, ZoneId zone)
+    {
+        // Find where each chunk starts in one pass, then parse the chunks in parallel
+        List<int[]> chunks = new ArrayList<>();
+        int lineNumber = 1;
+        int chunkStart = 0;
+        int chunkLine = 1;
+        for (int start = 0; start <= text.length(); lineNumber++)
+        {
+            int end = lineEnd(text, start);
+            start = end + 1;
+            if (lineNumber - chunkLine + 1 == CHUNK_LINES || start > text.length())
+            {
+                chunks.add(new int[]{chunkStart, Math.min(end, text.length()), chunkLine});
+                chunkStart = start;
+                chunkLine = lineNumber + 1;
+            }
+        }
+
+        IntStream indexes = IntStream.range(0, chunks.size());
+        if (chunks.size() > 1)
+        {
+            indexes = indexes.parallel();
+        }
+        List<Chunk> parsed = indexes
+                .mapToObj(i -> parseChunk(text, chunks.get(i), parser, expectedFormat, zone))
+                .collect(Collectors.toList());
+
+        // Chunks come back in order, so errors stay sorted by line
+        int count = 0;
+        List<String> errors = new ArrayList<>();
+        int errorCount = 0;
+        for (Chunk chunk : parsed)
+        {
+            count += chunk.count;
+            errorCount += chunk.errorCount;
+            for (String error : chunk.errors)
+            {
+                if (errors.size() < MAX_REPORTED_ERRORS)
+                {
+                    errors.add(error);
+                }
+            }
+        }
+        if (errorCount > 0)
+        {
+            return new CompletedImport(null, errors, errorCount);
+        }
+
+        CompletedTaskHistory completed = new CompletedTaskHistory(count);
+        for (Chunk chunk : parsed)
+        {
+            for (int i = 0; i < chunk.count; i++)
+            {
+                completed.add(new CompletedTask(chunk.times[i], chunk.tasks[i]));
+            }
+        }
+        completed.sortByTime();
+        return new CompletedImport(completed, errors, 0);
+    }
+
+    private static Chunk parseChunk(String text, int[] range, DateTimeFormatter parser, String expectedFormat, ZoneId zone)
+    {
+        Chunk chunk = new Chunk();
+        int lineNumber = range[2];
+        for (int start = range[0]; start <= range[1]; lineNumber++)
+        {
+            int end = Math.min(lineEnd(text, start), range[1]);
+            String line = text.substring(start, end);
+            start = end + 1;
+            if (line.trim().isEmpty())
+            {
+                continue;
+            }
+
+            // Split at the first separator so task names can contain " - " themselves
+            int separator = line.indexOf(" - ");
+            if (separator < 0)
+            {
+                chunk.error("Line " + lineNumber + ": " + missingSeparator(line));
+                continue;
+            }
+
+            String datePart = line.substring(0, separator).trim();
+            String taskPart = line.substring(separator + 3).trim();
+            try
+            {
+                LocalDateTime date = parser.parse(datePart, LocalDateTime::from);
+                chunk.add(date.atZone(zone).toInstant().toEpochMilli(), taskPart);
+            }
+            catch (DateTimeParseException e)
+            {
+                chunk.error("Line " + lineNumber + ": " + invalidDate(datePart, expectedFormat));
+            }
+        }
+        return chunk;
+    }
+
+    // Checks a single completed task line, returns what is wrong with it or null if it is valid
+    // Used by the editor to underline bad lines while the user types
+    public static String checkCompletedLine(String line, DateTimeFormatter parser, String expectedFormat)
+    {
+        if (line.trim().isEmpty())
+        {
+            return null;
+        }
+        int separator = line.indexOf(" - ");
+        if (separator < 0)
+        {
+            return missingSeparator(line);
+        }
+        String datePart = line.substring(0, separator).trim();
+        try
+        {
+            parser.parse(datePart, LocalDateTime::from);
+            return null;
+        }
+        catch (DateTimeParseException e)
+        {
+            return invalidDate(datePart, expectedFormat);
+        }
+    }
+
+    private static String missingSeparator(String line)
+    {
+        return "missing separator ' - ', expected [Date] - [Task Name], found: " + line.trim();
+    }
+
+    private static String invalidDate(String datePart, String expectedFormat)
+    {
+        return "invalid date '" + datePart + "', expected format " + expectedFormat;
+    }
+
+    // Index of the line break ending the line that starts at start, a '\r' before it is removed by trimming
+    private static int lineEnd(String text, int start)
+    {
+        int end = text.indexOf('\n', start);
+        return end < 0 ? text.length() : end;
+    }
+
+    // Completed tasks parsed from one chunk of lines
+    private static final class Chunk
+    {
+        private long[] times = new long[64];
+        private String[] tasks = new String[64];
+        private int count;
+        private final List<String> errors = new ArrayList<>();
+        private int errorCount;
+
+        private void add(long time, String task)
+        {
+            if (count == times.length)
+            {
+                times = Arrays.copyOf(times, count * 2);
+                tasks = Arrays.copyOf(tasks, count * 2);
+            }
+            times[count] = time;
+            tasks[count] = task;
+            count++;
+        }
+
+        private void error(String message)
+        {
+            if (errors.size() < MAX_REPORTED_ERRORS)
+            {
+                errors.add(message);
+            }
+            errorCount++;
+        }
+    }
+
+    // Result of importing completed tasks, the history is null when any line had an error
+    public static final class CompletedImport
+    {
+        private final CompletedTaskHistory completed;
+        private final List<String> errors;
+        private final int errorCount;
+
+        private CompletedImport(CompletedTaskHistory completed, List<String> errors, int errorCount)
+        {
+            this.completed = completed;
+            this.errors = errors;
+            this.errorCount = errorCount;
+        }
+
+        public CompletedTaskHistory getCompleted()
+        {
+            return completed;
+        }
+
+        public boolean hasErrors()
+        {
+            return errorCount > 0;
+        }
+
+        // Every error in one message, nothing was changed
+        public String getErrorReport()
+        {
+            StringBuilder report = new StringBuilder()
+                    .append(errorCount == 1 ? "1 line has" : errorCount + " lines have")
+                    .append(" errors, nothing was changed:\n");
+            for (String error : errors)
+            {
+                report.append('\n').append(error);
+            }
+            if (errorCount > errors.size())
+            {
+                report.append("\n... and ").append(errorCount - errors.size()).append(" more");
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.tasktracker;
+
+import lombok.extern.slf4j.Slf4j;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Append-only log of task operations made since the last saved snapshot
+// Every change appends one short line, the snapshot in config is only rewritten in the background and the log is then
+// trimmed to the operations the snapshot does not contain yet
+// Each snapshot epoch has its own log file whose first line holds the epoch, so switching to another profile leaves the
+// operations the previous profile has not saved yet on disk until that profile is loaded again
+// Logs without operations left in them are deleted when another one is opened, and so are logs left untouched for so long
+// that their profile is most likely gone, e.g. the log of an epoch a config reset discarded
+@Slf4j
+public class TaskJournal
+{
+    private static final String HEADER = "#tasktracker-journal";
+    private static final String FILE_PREFIX = "journal-";
+    private static final String FILE_SUFFIX = ".log";
+    // Single log shared by every epoch, used before each epoch had its own
+    private static final String LEGACY_FILE = "journal.log";
+    // Logs of other epochs not written for this long are deleted even with operations left in them
+    private static final Duration MAX_UNUSED_AGE = Duration.ofDays(90);
+
+    private final Path directory;
+    private Path file;
+    private BufferedWriter writer;
+    private long epoch;
+    // Sequence number of the last operation in the file
+    private long lastSequence;
+
+    public TaskJournal(File directory)
+    {
+        this.directory = directory.toPath();
+    }
+
+    // Replays operations newer than the loaded snapshot and opens the log for appending, returns how many were replayed
+    public synchronized int open(TaskTrackerData data)
+    {
+        close();
+        if (data.getJournalEpoch() == 0)
+        {
+            // New or older data, start a fresh log for it
+            long newEpoch = ThreadLocalRandom.current().nextLong();
+            data.setJournalEpoch(newEpoch == 0 ? 1 : newEpoch);
+        }
+        epoch = data.getJournalEpoch();
+        lastSequence = data.getJournalSequence();
+        file = fileFor(epoch);
+        migrateLegacyFile();
+        deleteStaleLogs();
+
+        List<String> tail = new ArrayList<>();
+        if (Files.exists(file))
+        {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+            {
+                String header = reader.readLine();
+                if (header != null && header.equals(HEADER + "\t" + epoch))
+                {
+                    replay(reader, data, tail);
+                }
+                else if (header != null)
+                {
+                    log.warn("Discarding task journal with an unexpected header: {}", header);
+                }
+            }
+            catch (IOException e)
+            {
+                log.warn("Failed to read task journal", e);
+            }
+        }
+
+        try
+        {
+            rewrite(tail);
+        }
+        catch (IOException e)
+        {
+            log.warn("Failed to open task journal, changes are only saved with snapshots", e);
+        }
+        return tail.size();
+    }
+
+    private Path fileFor(long epoch)
+    {
+        return directory.resolve(FILE_PREFIX + Long.toHexString(epoch) + FILE_SUFFIX);
+    }
+
+    // Helper function to move the shared log of older versions to the file of the epoch it belongs to
+    private void migrateLegacyFile()
+    {
+        Path legacy = directory.resolve(LEGACY_FILE);
+        if (!Files.exists(legacy))
+        {
+            return;
+        }
+        try
+        {
+            String header;
+            try (BufferedReader reader = Files.newBufferedReader(legacy, StandardCharsets.UTF_8))
+            {
+                header = reader.readLine();
+            }
+            Long legacyEpoch = parseEpoch(header);
+            if (legacyEpoch != null && !Files.exists(fileFor(legacyEpoch)))
+            {
+                Files.move(legacy, fileFor(legacyEpoch), StandardCopyOption.ATOMIC_MOVE);
+            }
+            else
+            {
+                Files.delete(legacy);
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("Failed to migrate task journal", e);
+        }
+    }
+
+    // Helper function to delete the logs of other epochs that hold no operations or have not been written for a long time
+    // A reset removes the manifest holding the epoch, so the log of a reset profile can only be told apart by its age
+    private void deleteStaleLogs()
+    {
+        long staleBefore = System.currentTimeMillis() - MAX_UNUSED_AGE.toMillis();
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX))
+        {
+            for (Path other : logs)
+            {
+                if (other.equals(file))
+                {
+                    continue;
+                }
+                int operations = Files.readAllLines(other, StandardCharsets.UTF_8).size() - 1;
+                if (operations <= 0)
+                {
+                    Files.delete(other);
+                }
+                else if (Files.getLastModifiedTime(other).toMillis() < staleBefore)
+                {
+                    log.warn("Deleting task journal {} with {} unsaved operations, it was not used for {} days",
+                            other.getFileName(), operations, MAX_UNUSED_AGE.toDays());
+                    Files.delete(other);
+                }
+            }
+        }
+        catch (NoSuchFileException e)
+        {
+            // No journal directory yet
+        }
+        catch (IOException | UncheckedIOException e)
+        {
+            log.warn("Failed to clean up task journals", e);
+        }
+    }
+
+    // Epoch in a log's header line, null if it is not a header
+    private static Long parseEpoch(String header)
+    {
+        if (header == null || !header.startsWith(HEADER + "\t"))
+        {
+            return null;
+        }
+        try
+        {
+            return Long.parseLong(header.substring(HEADER.length() + 1));
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    // Applies every valid record after the snapshot, a torn last line from a crash ends the replay
+    private void replay(BufferedReader reader, TaskTrackerData data, List<String> tail) throws IOException
+    {
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            String[] fields = line.split("\t", -1);
+            long sequence;
+            TaskOperation operation;
+            try
+            {
+                sequence = Long.parseLong(fields[0]);
+                operation = TaskOperation.valueOf(fields[1]);
+            }
+            catch (RuntimeException e)
+            {
+                log.warn("Stopping task journal replay at invalid record: {}", line);
+                return;
+            }
+            if (fields.length != operation.getArgumentCount() + 2)
+            {
+                log.warn("Stopping task journal replay at invalid record: {}", line);
+                return;
+            }
+            // Already part of the snapshot
+            if (sequence <= data.getJournalSequence())
+            {
+                continue;
+            }
+
+            String[] args = new String[operation.getArgumentCount()];
+            for (int i = 0; i < args.length; i++)
+            {
+                args[i] = unescape(fields[i + 2]);
+            }
+            try
+            {
+                operation.apply(data, args);
+            }
+            catch (RuntimeException e)
+            {
+                log.warn("Stopping task journal replay at invalid record: {}", line);
+                return;
+            }
+            data.setJournalSequence(sequence);
+            lastSequence = sequence;
+            tail.add(line);
+        }
+    }
+
+    // Records an operation that was applied to the data, the data keeps the sequence number of its latest operation
+    public synchronized void append(TaskTrackerData data, TaskOperation operation, String... args)
+    {
+        long sequence = data.getJournalSequence() + 1;
+        data.setJournalSequence(sequence);
+        lastSequence = sequence;
+        if (writer == null)
+        {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder().append(sequence).append('\t').append(operation.name());
+        for (String arg : args)
+        {
+            line.append('\t');
+            escape(arg, line);
+        }
+        try
+        {
+            writer.write(line.toString());
+            writer.newLine();
+            writer.flush();
+        }
+        catch (IOException e)
+        {
+            log.warn("Failed to write task journal, changes are only saved with snapshots", e);
+            close();
+        }
+    }
+
+    // Drops operations that are part of a saved snapshot, called after the snapshot was written
+    public synchronized void compact(long snapshotSequence)
+    {
+        if (writer == null)
+        {
+            return;
+        }
+
+        try
+        {
+            List<String> tail = new ArrayList<>();
+            // Usually nothing happened while the snapshot was written and the whole log can go
+            if (lastSequence > snapshotSequence)
+            {
+                writer.flush();
+                List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+                for (String line : lines.subList(1, lines.size()))
+                {
+                    int tab = line.indexOf('\t');
+                    if (Long.parseLong(line.substring(0, tab)) > snapshotSequence)
+                    {
+                        tail.add(line);
+                    }
+                }
+            }
+            close();
+            rewrite(tail);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            log.warn("Failed to compact task journal", e);
+        }
+    }
+
+    // Replaces the log with a header and the given records, then reopens it for appending
+    private void rewrite(List<String> records) throws IOException
+    {
+        Files.createDirectories(directory);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        List<String> lines = new ArrayList<>(records.size() + 1);
+        lines.add(HEADER + "\t" + epoch);
+        lines.addAll(records);
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    public synchronized void close()
+    {
+        if (writer == null)
+        {
+            return;
+        }
+        try
+        {
+            writer.close();
+        }
+        catch (IOException e)
+        {
+            log.warn("Failed to close task journal", e);
+        }
+        writer = null;
+    }
+
+    // Task names can hold any character, keep each record on one line with tab separated fields
+    private static void escape(String value, StringBuilder out)
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            char ch = value.charAt(i);
+            switch (ch)
+            {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    out.append(ch);
+            }
+        }
+    }
+
+    private static String unescape(String value)
+    {
+        if (value.indexOf('\\') < 0)
+        {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++)
+        {
+            char ch = value.charAt(i);
+            if (ch != '\\' || i + 1 == value.length())
+            {
+                out.append(ch);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next)
+            {
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                default:
+                    out.append(next);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.tasktracker;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+// Applies an edited list onto the current one by only adding and removing what differs
+// Completed entries are matched on what the edit dialog shows, the local minute and the task, so entries the user
+// left alone keep their exact original timestamps
+public final class TaskListDiff
+{
+    private static final long SECONDS_PER_MINUTE = 60;
+
+    private TaskListDiff()
+    {
+    }
+
+    // Removes tasks that are no longer listed and adds the new ones, returns true if anything changed
+    public static boolean applyTasks(Collection<String> current, Collection<String> edited, Consumer<String> remove, Consumer<String> add)
+    {
+        List<String> removed = new ArrayList<>();
+        for (String task : current)
+        {
+            if (!edited.contains(task))
+            {
+                removed.add(task);
+            }
+        }
+        List<String> added = new ArrayList<>();
+        for (String task : edited)
+        {
+            if (!current.contains(task))
+            {
+                added.add(task);
+            }
+        }
+
+        removed.forEach(remove);
+        added.forEach(add);
+        return !removed.isEmpty() || !added.isEmpty();
+    }
+
+    // Removes the entries that are no longer listed and adds the new ones, the times of both are passed to changed
+    // Returns true if anything changed
+    public static boolean applyCompleted(CompletedTaskHistory current, CompletedTaskHistory edited, ZoneId zone, LongConsumer changed)
+    {
+        // Entries with the same line are chained through next, the first of each chain is in the map
+        int size = current.size();
+        Map<LineKey, Integer> firstIndex = new HashMap<>(size * 4 / 3 + 1);
+        int[] next = new int[size];
+        for (int i = size - 1; i >= 0; i--)
+        {
+            Integer first = firstIndex.put(new LineKey(current.getCompletedAt(i), current.getTask(i), zone), i);
+            next[i] = first == null ? -1 : first;
+        }
+
+        // Each edited line keeps one matching entry, lines without a match are new
+        boolean[] keep = new boolean[size];
+        List<CompletedTask> added = new ArrayList<>();
+        for (int i = 0; i < edited.size(); i++)
+        {
+            LineKey key = new LineKey(edited.getCompletedAt(i), edited.getTask(i), zone);
+            Integer match = firstIndex.get(key);
+            if (match == null)
+            {
+                added.add(edited.get(i));
+                continue;
+            }
+            keep[match] = true;
+            if (next[match] < 0)
+            {
+                firstIndex.remove(key);
+            }
+            else
+            {
+                firstIndex.put(key, next[match]);
+            }
+        }
+
+        boolean removedAny = false;
+        for (int i = 0; i < size; i++)
+        {
+            if (!keep[i])
+            {
+                changed.accept(current.getCompletedAt(i));
+                removedAny = true;
+            }
+        }
+        if (!removedAny && added.isEmpty())
+        {
+            return false;
+        }
+
+        current.retainEntries(keep);
+        for (CompletedTask task : added)
+        {
+            changed.accept(task.getCompletedAt());
+            current.add(task);
+        }
+        // Only reorders anything when entries were added before the newest one
+        current.sortByTime();
+        return true;
+    }
+
+    // A completed task line as the edit dialog shows it, a task at a local date and time to the minute
+    private static final class LineKey
+    {
+        private final long localMinute;
+        private final String task;
+
+        private LineKey(long completedAt, String task, ZoneId zone)
+        {
+            // Local time rather than the instant, so the repeated hour when clocks go back still matches itself
+            LocalDateTime local = LocalDateTime.ofInstant(Instant.ofEpochMilli(completedAt), zone);
+            this.localMinute = Math.floorDiv(local.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+            this.task = task;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof LineKey))
+            {
+                return false;
+            }
+            LineKey key = (LineKey) other;
+            return localMinute == key.localMinute && task.equals(key.task);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(localMinute, task);
+        }
+    }
+}
@@ -0,0 +1,539 @@
+package com.tasktracker;
+
+import net.runelite.client.ui.ColorScheme;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.ToolTipManager;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Highlighter;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.Position;
+import javax.swing.text.View;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.event.MouseEvent;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// Editor for a whole task list that only holds one page of lines in its text area at a time
+// Pages are built from the source the first time they are shown, so opening a list of any size only costs one page
+// Lines are checked on a background thread shortly after the user stops typing, only the lines that changed are
+// checked again and bad lines are underlined with the reason in their tooltip
+public class TaskListEditor extends JPanel
+{
+    // Property fired whenever the number of bad lines may have changed
+    public static final String ERROR_COUNT_PROPERTY = "errorCount";
+
+    private static final int PAGE_LINES = 500;
+    // Wait this long after the last edit before checking the changed lines
+    private static final int VALIDATION_DELAY_MS = 300;
+    private static final Color ERROR_COLOR = new Color(230, 70, 70);
+
+    private IntFunction<String> source;
+    private int sourceLines;
+    // Returns what is wrong with a line or null if it is fine, null when any text is a valid line
+    private final Function<String, String> lineValidator;
+
+    // Text of the pages the user has edited, every other page still matches the source
+    private final Map<Integer, String> editedPages = new HashMap<>();
+    // Bad lines on each page, the shown page is counted by its error marks instead
+    private int[] pageErrors;
+    private int pageCount;
+    private int page;
+    private boolean pageEdited;
+    private boolean cleared;
+
+    private final JTextArea textArea = new JTextArea()
+    {
+        @Override
+        public String getToolTipText(MouseEvent event)
+        {
+            return getErrorAt(viewToModel2D(event.getPoint()));
+        }
+    };
+    private final JButton previousButton = new JButton("<");
+    private final JButton nextButton = new JButton(">");
+    private final JLabel pageLabel = new JLabel();
+    private final JPanel pagePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 5, 0));
+    private final JLabel statusLabel = new JLabel(" ");
+
+    // Underlined lines of the shown page keyed by their highlight, highlights move along with edits
+    private final Map<Object, String> errorMarks = new LinkedHashMap<>();
+    private final Highlighter.HighlightPainter errorPainter = new UnderlinePainter(ERROR_COLOR);
+    // Range of the shown page changed since it was last checked, positions move along with edits
+    private Position dirtyStart;
+    private Position dirtyEnd;
+    // Bumped on every edit and page change, results for an older generation are out of date
+    private int generation;
+    // Set while the text area is filled in, those changes are not edits
+    private boolean loading;
+    private int lastErrorCount;
+
+    private final Timer validationTimer = new Timer(VALIDATION_DELAY_MS, e -> startValidation());
+    private final ExecutorService validationExecutor = Executors.newSingleThreadExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "task-tracker-validation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TaskListEditor(IntFunction<String> source, int sourceLines, Function<String, String> lineValidator)
+    {
+        super(new BorderLayout(0, 5));
+        this.source = source;
+        this.sourceLines = sourceLines;
+        this.lineValidator = lineValidator;
+        this.pageCount = Math.max(1, (sourceLines + PAGE_LINES - 1) / PAGE_LINES);
+        this.pageErrors = new int[pageCount];
+
+        textArea.setRows(10);
+        textArea.setColumns(40);
+        textArea.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+        textArea.setForeground(Color.WHITE);
+        textArea.setCaretColor(Color.WHITE);
+        textArea.getDocument().addDocumentListener(new DocumentListener()
+        {
+            @Override
+            public void insertUpdate(DocumentEvent e)
+            {
+                textChanged(e.getOffset(), e.getOffset() + e.getLength());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e)
+            {
+                textChanged(e.getOffset(), e.getOffset());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e)
+            {
+            }
+        });
+        ToolTipManager.sharedInstance().registerComponent(textArea);
+        validationTimer.setRepeats(false);
+
+        previousButton.setFocusable(false);
+        previousButton.addActionListener(e -> showPage(page - 1));
+        nextButton.setFocusable(false);
+        nextButton.addActionListener(e -> showPage(page + 1));
+        pagePanel.add(previousButton);
+        pagePanel.add(pageLabel);
+        pagePanel.add(nextButton);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(pagePanel, BorderLayout.NORTH);
+        southPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        add(new JScrollPane(textArea), BorderLayout.CENTER);
+        add(southPanel, BorderLayout.SOUTH);
+
+        showPage(0);
+    }
+
+    // Helper function to get the number of bad lines on every page
+    public int getErrorCount()
+    {
+        int count = errorMarks.size();
+        for (int i = 0; i < pageCount; i++)
+        {
+            if (i != page)
+            {
+                count += pageErrors[i];
+            }
+        }
+        return count;
+    }
+
+    // Helper function to check if anything differs from the source
+    public boolean isEdited()
+    {
+        return cleared || pageEdited || !editedPages.isEmpty();
+    }
+
+    // The full text of every page, one task per line
+    public String getText()
+    {
+        storePage();
+        StringJoiner text = new StringJoiner("\n");
+        for (int i = 0; i < pageCount; i++)
+        {
+            String pageText = editedPages.get(i);
+            text.add(pageText != null ? pageText : sourcePage(i));
+        }
+        return text.toString();
+    }
+
+    // Empties every page
+    public void clear()
+    {
+        editedPages.clear();
+        source = null;
+        sourceLines = 0;
+        pageCount = 1;
+        pageErrors = new int[1];
+        page = 0;
+        pageEdited = false;
+        cleared = true;
+        showPage(0);
+    }
+
+    // Checks whatever was not checked yet right away, returns true if every line is valid
+    public boolean validateNow()
+    {
+        if (pageEdited)
+        {
+            validatePage();
+        }
+        return getErrorCount() == 0;
+    }
+
+    // Shows the first bad line so the user can fix it
+    public void showFirstError()
+    {
+        if (errorMarks.isEmpty())
+        {
+            for (int i = 0; i < pageCount; i++)
+            {
+                if (i != page && pageErrors[i] > 0)
+                {
+                    showPage(i);
+                    break;
+                }
+            }
+        }
+        if (!errorMarks.isEmpty())
+        {
+            Highlighter.Highlight mark = (Highlighter.Highlight) errorMarks.keySet().iterator().next();
+            textArea.requestFocusInWindow();
+            textArea.setCaretPosition(mark.getStartOffset());
+        }
+    }
+
+    // Stops the background checks, the editor can not be used after this
+    public void dispose()
+    {
+        validationTimer.stop();
+        validationExecutor.shutdownNow();
+    }
+
+    private void showPage(int newPage)
+    {
+        storePage();
+        page = Math.max(0, Math.min(newPage, pageCount - 1));
+
+        String text = editedPages.get(page);
+        loading = true;
+        try
+        {
+            textArea.setText(text != null ? text : sourcePage(page));
+        }
+        finally
+        {
+            loading = false;
+        }
+        textArea.setCaretPosition(0);
+
+        textArea.getHighlighter().removeAllHighlights();
+        errorMarks.clear();
+        dirtyStart = null;
+        dirtyEnd = null;
+        generation++;
+        validationTimer.stop();
+        pageEdited = false;
+        pageErrors[page] = 0;
+
+        // The source is always valid, only edited pages can have bad lines
+        if (text != null)
+        {
+            validatePage();
+        }
+
+        pageLabel.setText("Page " + (page + 1) + " of " + pageCount);
+        previousButton.setEnabled(page > 0);
+        nextButton.setEnabled(page < pageCount - 1);
+        pagePanel.setVisible(pageCount > 1);
+        errorCountChanged();
+    }
+
+    // Keeps the text and error count of the shown page before another page is shown
+    private void storePage()
+    {
+        if (pageEdited)
+        {
+            validatePage();
+            editedPages.put(page, textArea.getText());
+            pageEdited = false;
+        }
+        pageErrors[page] = errorMarks.size();
+    }
+
+    private String sourcePage(int index)
+    {
+        StringJoiner text = new StringJoiner("\n");
+        int end = Math.min(sourceLines, (index + 1) * PAGE_LINES);
+        for (int i = index * PAGE_LINES; i < end; i++)
+        {
+            text.add(source.apply(i));
+        }
+        return text.toString();
+    }
+
+    private void textChanged(int start, int end)
+    {
+        if (loading)
+        {
+            return;
+        }
+        pageEdited = true;
+        generation++;
+        if (lineValidator == null)
+        {
+            return;
+        }
+        markDirty(start, end);
+        validationTimer.restart();
+    }
+
+    // Helper function to grow the range of text that has to be checked again
+    private void markDirty(int start, int end)
+    {
+        Document document = textArea.getDocument();
+        try
+        {
+            if (dirtyStart == null || start < dirtyStart.getOffset())
+            {
+                dirtyStart = document.createPosition(start);
+            }
+            if (dirtyEnd == null || end > dirtyEnd.getOffset())
+            {
+                dirtyEnd = document.createPosition(end);
+            }
+        }
+        catch (BadLocationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Checks the lines that changed on the background thread
+    private void startValidation()
+    {
+        if (dirtyStart == null)
+        {
+            return;
+        }
+        Element root = textArea.getDocument().getDefaultRootElement();
+        int firstLine = root.getElementIndex(dirtyStart.getOffset());
+        int lastLine = root.getElementIndex(dirtyEnd.getOffset());
+        dirtyStart = null;
+        dirtyEnd = null;
+
+        String[] lines = readLines(firstLine, lastLine);
+        int validatedPage = page;
+        int validatedGeneration = generation;
+        validationExecutor.execute(() ->
+        {
+            String[] errors = checkLines(lines);
+            SwingUtilities.invokeLater(() -> finishValidation(validatedPage, validatedGeneration, firstLine, lastLine, errors));
+        });
+    }
+
+    private void finishValidation(int validatedPage, int validatedGeneration, int firstLine, int lastLine, String[] errors)
+    {
+        if (validatedPage != page || validationExecutor.isShutdown())
+        {
+            return;
+        }
+        if (validatedGeneration != generation)
+        {
+            // The text changed while these lines were checked, check them again along with the newer edits
+            Element root = textArea.getDocument().getDefaultRootElement();
+            int last = Math.min(lastLine, root.getElementCount() - 1);
+            markDirty(root.getElement(Math.min(firstLine, last)).getStartOffset(), root.getElement(last).getEndOffset() - 1);
+            validationTimer.restart();
+            return;
+        }
+        applyErrors(firstLine, lastLine, errors);
+    }
+
+    // Checks every line of the shown page right away, pages are small enough to do this on the Swing thread
+    private void validatePage()
+    {
+        dirtyStart = null;
+        dirtyEnd = null;
+        generation++;
+        validationTimer.stop();
+        if (lineValidator == null)
+        {
+            return;
+        }
+        int lastLine = textArea.getDocument().getDefaultRootElement().getElementCount() - 1;
+        applyErrors(0, lastLine, checkLines(readLines(0, lastLine)));
+    }
+
+    private String[] checkLines(String[] lines)
+    {
+        String[] errors = new String[lines.length];
+        for (int i = 0; i < lines.length; i++)
+        {
+            errors[i] = lineValidator.apply(lines[i]);
+        }
+        return errors;
+    }
+
+    // Replaces the underlines between two lines with the results of checking them
+    private void applyErrors(int firstLine, int lastLine, String[] errors)
+    {
+        Highlighter highlighter = textArea.getHighlighter();
+        Element root = textArea.getDocument().getDefaultRootElement();
+        int rangeStart = root.getElement(firstLine).getStartOffset();
+        int rangeEnd = root.getElement(lastLine).getEndOffset() - 1;
+
+        Iterator<Object> marks = errorMarks.keySet().iterator();
+        while (marks.hasNext())
+        {
+            Object mark = marks.next();
+            int start = ((Highlighter.Highlight) mark).getStartOffset();
+            if (start >= rangeStart && start <= rangeEnd)
+            {
+                highlighter.removeHighlight(mark);
+                marks.remove();
+            }
+        }
+
+        for (int i = firstLine; i <= lastLine; i++)
+        {
+            String error = errors[i - firstLine];
+            if (error == null)
+            {
+                continue;
+            }
+            Element line = root.getElement(i);
+            try
+            {
+                errorMarks.put(highlighter.addHighlight(line.getStartOffset(), line.getEndOffset() - 1, errorPainter), error);
+            }
+            catch (BadLocationException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+        errorCountChanged();
+    }
+
+    private String[] readLines(int firstLine, int lastLine)
+    {
+        Document document = textArea.getDocument();
+        Element root = document.getDefaultRootElement();
+        String[] lines = new String[lastLine - firstLine + 1];
+        try
+        {
+            for (int i = firstLine; i <= lastLine; i++)
+            {
+                Element line = root.getElement(i);
+                lines[i - firstLine] = document.getText(line.getStartOffset(), line.getEndOffset() - 1 - line.getStartOffset());
+            }
+        }
+        catch (BadLocationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        return lines;
+    }
+
+    // Helper function to find the error of the underlined line at an offset, if any
+    private String getErrorAt(int offset)
+    {
+        for (Map.Entry<Object, String> mark : errorMarks.entrySet())
+        {
+            Highlighter.Highlight highlight = (Highlighter.Highlight) mark.getKey();
+            if (offset >= highlight.getStartOffset() && offset <= highlight.getEndOffset())
+            {
+                return mark.getValue();
+            }
+        }
+        return null;
+    }
+
+    private void errorCountChanged()
+    {
+        int errorCount = getErrorCount();
+        if (errorCount == 0)
+        {
+            statusLabel.setText(" ");
+        }
+        else
+        {
+            StringJoiner pages = new StringJoiner(", ");
+            for (int i = 0; i < pageCount; i++)
+            {
+                if (i == page ? !errorMarks.isEmpty() : pageErrors[i] > 0)
+                {
+                    pages.add(String.valueOf(i + 1));
+                }
+            }
+            String where = pageCount > 1 ? " (page " + pages + ")" : "";
+            statusLabel.setText((errorCount == 1 ? "1 line has" : errorCount + " lines have") + " errors" + where
+                    + ", hover the underlined lines for details");
+        }
+        statusLabel.setForeground(errorCount == 0 ? Color.WHITE : ERROR_COLOR);
+
+        int oldCount = lastErrorCount;
+        lastErrorCount = errorCount;
+        firePropertyChange(ERROR_COUNT_PROPERTY, oldCount, errorCount);
+    }
+
+    // Draws a wavy line under the text of a highlight instead of filling it
+    private static class UnderlinePainter extends DefaultHighlighter.DefaultHighlightPainter
+    {
+        private UnderlinePainter(Color color)
+        {
+            super(color);
+        }
+
+        @Override
+        public Shape paintLayer(Graphics g, int offs0, int offs1, Shape bounds, JTextComponent c, View view)
+        {
+            Rectangle area;
+            try
+            {
+                area = view.modelToView(offs0, Position.Bias.Forward, offs1, Position.Bias.Backward, bounds).getBounds();
+            }
+            catch (BadLocationException e)
+            {
+                return null;
+            }
+
+            g.setColor(getColor());
+            int y = area.y + area.height - 3;
+            for (int x = area.x; x < area.x + area.width; x += 4)
+            {
+                g.drawLine(x, y, x + 2, y + 2);
+                g.drawLine(x + 2, y + 2, x + 4, y);
+            }
+            return area;
+        }
+    }
+}
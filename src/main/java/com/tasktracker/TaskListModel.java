@@ -0,0 +1,253 @@
+package com.tasktracker;
+
+import javax.swing.AbstractListModel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// List model for a task section, updates only fire events for the rows that changed
+// Rows added and removed are passed on to the search index, a filter shows only the rows whose task it matches
+public class TaskListModel extends AbstractListModel<String>
+{
+    private final TaskSearchIndex searchIndex;
+    private List<String> tasks = new ArrayList<>();
+    // Matching tasks of the filter, null when every row is shown
+    private TaskSearchIndex.Matches filter;
+    // Rows shown while filtering, as indexes into tasks
+    private int[] visibleRows = new int[0];
+    private int visibleCount;
+    // Search index id of the task in each row, looked up once per index generation instead of on every keystroke
+    private int[] rowIds;
+    private int rowIdsGeneration;
+    // Completed history the rows were read from, its version then and the order it was shown in
+    private CompletedTaskHistory completed;
+    private int completedVersion;
+    private boolean newestFirst;
+
+    public TaskListModel(TaskSearchIndex searchIndex)
+    {
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public int getSize()
+    {
+        return filter == null ? tasks.size() : visibleCount;
+    }
+
+    @Override
+    public String getElementAt(int index)
+    {
+        return tasks.get(getSourceIndex(index));
+    }
+
+    // Position of a shown row in the whole list, used for numbering rows while filtering
+    public int getSourceIndex(int index)
+    {
+        return filter == null ? index : visibleRows[index];
+    }
+
+    // Number of rows in the whole list
+    public int getSourceSize()
+    {
+        return tasks.size();
+    }
+
+    public boolean isFiltered()
+    {
+        return filter != null;
+    }
+
+    public int indexOf(String task)
+    {
+        if (filter == null)
+        {
+            return tasks.indexOf(task);
+        }
+        for (int i = 0; i < visibleCount; i++)
+        {
+            if (tasks.get(visibleRows[i]).equals(task))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Replaces the rows, the unchanged start and end of the list are left alone
+    public void setTasks(List<String> newTasks)
+    {
+        List<String> oldTasks = tasks;
+        tasks = new ArrayList<>(newTasks);
+        rowIds = null;
+
+        int oldSize = oldTasks.size();
+        int newSize = tasks.size();
+
+        // Skip rows that are the same at the start
+        int prefix = 0;
+        int limit = Math.min(oldSize, newSize);
+        while (prefix < limit && oldTasks.get(prefix).equals(tasks.get(prefix)))
+        {
+            prefix++;
+        }
+        if (prefix == oldSize && prefix == newSize)
+        {
+            return;
+        }
+
+        // Skip rows that are the same at the end
+        int suffix = 0;
+        limit -= prefix;
+        while (suffix < limit && oldTasks.get(oldSize - 1 - suffix).equals(tasks.get(newSize - 1 - suffix)))
+        {
+            suffix++;
+        }
+
+        int removed = oldSize - prefix - suffix;
+        int added = newSize - prefix - suffix;
+        for (int i = prefix; i < prefix + removed; i++)
+        {
+            searchIndex.remove(oldTasks.get(i));
+        }
+        for (int i = prefix; i < prefix + added; i++)
+        {
+            searchIndex.add(tasks.get(i));
+        }
+
+        if (filter != null)
+        {
+            // Shown rows are positions in the whole list, which may all have moved
+            int oldCount = visibleCount;
+            collectVisibleRows(null, tasks.size());
+            fireRowsReplaced(oldCount, visibleCount);
+            return;
+        }
+
+        int changed = Math.min(removed, added);
+        if (changed > 0)
+        {
+            fireContentsChanged(this, prefix, prefix + changed - 1);
+        }
+        if (removed > changed)
+        {
+            fireIntervalRemoved(this, prefix + changed, prefix + removed - 1);
+        }
+        else if (added > changed)
+        {
+            fireIntervalAdded(this, prefix + changed, prefix + added - 1);
+        }
+    }
+
+    // Shows the completed history in display order, read straight from the history
+    // Refreshes that left the history alone, like a roll, return without looking at any row
+    public void setCompleted(CompletedTaskHistory history, boolean newestFirst)
+    {
+        if (history == completed && history.getVersion() == completedVersion && newestFirst == this.newestFirst)
+        {
+            return;
+        }
+        completed = history;
+        completedVersion = history.getVersion();
+        this.newestFirst = newestFirst;
+        setTasks(completedRows(history, newestFirst));
+    }
+
+    // Helper function to view the task names of a completed history in display order without copying them
+    public static List<String> completedRows(CompletedTaskHistory history, boolean newestFirst)
+    {
+        int size = history.size();
+        return new AbstractList<String>()
+        {
+            @Override
+            public String get(int index)
+            {
+                return history.getTask(newestFirst ? size - 1 - index : index);
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+        };
+    }
+
+    // Shows only the rows whose task matches, null shows every row
+    // When every task matching now also matched the previous filter only the shown rows have to be checked again
+    public void setFilter(TaskSearchIndex.Matches matches, boolean narrowing)
+    {
+        int oldCount = getSize();
+        boolean wasFiltered = filter != null;
+        filter = matches;
+        if (matches == null)
+        {
+            if (wasFiltered)
+            {
+                fireRowsReplaced(oldCount, tasks.size());
+            }
+            return;
+        }
+
+        if (narrowing && wasFiltered)
+        {
+            collectVisibleRows(visibleRows, visibleCount);
+        }
+        else
+        {
+            collectVisibleRows(null, tasks.size());
+        }
+        fireRowsReplaced(oldCount, visibleCount);
+    }
+
+    // Helper function to keep the matching rows out of the given rows, all rows when null
+    // Narrowing writes over the given rows, a kept row is never ahead of the row being checked
+    private void collectVisibleRows(int[] rows, int rowCount)
+    {
+        if (rowIds == null || rowIdsGeneration != searchIndex.getGeneration())
+        {
+            rowIds = new int[tasks.size()];
+            for (int i = 0; i < rowIds.length; i++)
+            {
+                rowIds[i] = searchIndex.idOf(tasks.get(i));
+            }
+            rowIdsGeneration = searchIndex.getGeneration();
+        }
+
+        int[] visible = rows != null ? rows : new int[Math.max(16, Math.min(rowCount, 1024))];
+        int count = 0;
+        for (int i = 0; i < rowCount; i++)
+        {
+            int row = rows == null ? i : rows[i];
+            if (filter.containsId(rowIds[row]))
+            {
+                if (count == visible.length)
+                {
+                    visible = Arrays.copyOf(visible, Math.max(16, count * 2));
+                }
+                visible[count++] = row;
+            }
+        }
+        visibleRows = visible;
+        visibleCount = count;
+    }
+
+    // Helper function to tell the list that every row may have changed
+    private void fireRowsReplaced(int oldSize, int newSize)
+    {
+        int changed = Math.min(oldSize, newSize);
+        if (changed > 0)
+        {
+            fireContentsChanged(this, 0, changed - 1);
+        }
+        if (oldSize > newSize)
+        {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        }
+        else if (newSize > oldSize)
+        {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+    }
+}
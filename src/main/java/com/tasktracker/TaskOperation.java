@@ -0,0 +1,146 @@
+package com.tasktracker;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// A single change to the task data as written to the journal
+// Arguments hold the resolved effect of the change (e.g. whether a completed task left the active list) so replaying
+// it later does not depend on the config at the time of replay
+// Applying an operation twice has the same result as applying it once, a snapshot may already contain some of the
+// operations that are replayed onto it
+@Getter
+@RequiredArgsConstructor
+public enum TaskOperation
+{
+    // Args: task, empty for no current task
+    SET_CURRENT(1)
+    {
+        @Override
+        public void apply(TaskTrackerData data, String[] args)
+        {
+            data.setCurrentTask(args[0]);
+        }
+    },
+    // Args: task, rolled from the roll bag
+    DRAW(1)
+    {
+        @Override
+        public void apply(TaskTrackerData data, String[] args)
+        {
+            data.setCurrentTask(args[0]);
+            data.getRollBag().markDrawn(args[0]);
+        }
+    },
+    // Args: completed at, task, removed from active
+    COMPLETE(3)
+    {
+        @Override
+        public void apply(TaskTrackerData data, String[] args)
+        {
+            long completedAt = Long.parseLong(args[0]);
+            if (!data.getCompleted().contains(completedAt, args[1]))
+            {
+                data.addCompleted(new CompletedTask(completedAt, args[1]));
+            }
+            if (Boolean.parseBoolean(args[2]))
+            {
+                data.removeActive(args[1]);
+            }
+            data.setCurrentTask("");
+        }
+    },
+    // Args: task, clears the current task
+    BACKLOG(2)
+    {
+        @Override
+        public void apply(TaskTrackerData data, String[] args)
+        {
+            data.getBacklog().add(args[0]);
+            data.removeActive(args[0]);
+            if (Boolean.parseBoolean(args[1]))
+            {
+                data.setCurrentTask("");
+            }
+        }
+    },
+    // Args: section, task
+    DELETE(2)
+    {
+        @Override
+        public void apply(TaskTrackerData data, String[] args)
+        {
+            switch (args[0])
+            {
+                case TaskTrackerPanel.activeString:
+                    data.removeActive(args[1]);
+                    break;
+                case TaskTrackerPanel.backlogString:
+                    data.getBacklog().remove(args[1]);
+                    break;
+                case TaskTrackerPanel.completedString:
+                    data.getCompleted().removeTask(args[1]);
+                    break;
+                default:
+                    break;
+            }
+        }
+    },
+    // Args: section, task
+    MOVE_TO_ACTIVE(2)
+    {
+        @Override
+        public void apply(TaskTrackerData data, String[] args)
+        {
+            switch (args[0])
+            {
+                case TaskTrackerPanel.backlogString:
+                    data.addActive(args[1]);
+                    data.getBacklog().remove(args[1]);
+                    break;
+                case TaskTrackerPanel.completedString:
+                    data.addActive(args[1]);
+                    data.getCompleted().removeTask(args[1]);
+                    break;
+                default:
+                    break;
+            }
+        }
+    },
+    // Args: task, repeatable
+    SET_REPEATABLE(2)
+    {
+        @Override
+        public void apply(TaskTrackerData data, String[] args)
+        {
+            if (Boolean.parseBoolean(args[1]))
+            {
+                data.getRepeatableTasks().add(args[0]);
+            }
+            else
+            {
+                data.getRepeatableTasks().remove(args[0]);
+            }
+        }
+    },
+    // Args: task, roll weight
+    SET_WEIGHT(2)
+    {
+        @Override
+        public void apply(TaskTrackerData data, String[] args)
+        {
+            double weight = Double.parseDouble(args[1]);
+            if (weight == 1)
+            {
+                data.getTaskWeights().remove(args[0]);
+            }
+            else
+            {
+                data.getTaskWeights().put(args[0], weight);
+            }
+        }
+    };
+
+    private final int argumentCount;
+
+    public abstract void apply(TaskTrackerData data, String[] args);
+}
@@ -0,0 +1,147 @@
+package com.tasktracker;
+
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+// Weighted random choice between the active tasks using Vose's alias method
+// Building the table is O(n) and only happens when the active tasks or the weights change, every roll is then O(1)
+public class TaskRollSampler
+{
+    // Rolls that keep landing on the excluded task fall back to a linear scan after this many tries
+    private static final int MAX_REJECTIONS = 32;
+
+    private final SortedTaskList source;
+    private final int sourceVersion;
+    private final int weightsVersion;
+
+    private final String[] tasks;
+    private final double[] weights;
+    private final double totalWeight;
+    private final double[] probability;
+    private final int[] alias;
+
+    public TaskRollSampler(SortedTaskList source, int weightsVersion, ToDoubleFunction<String> weightFunction)
+    {
+        this.source = source;
+        this.sourceVersion = source.getVersion();
+        this.weightsVersion = weightsVersion;
+
+        int n = source.size();
+        tasks = source.toArray(new String[0]);
+        weights = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++)
+        {
+            weights[i] = Math.max(0, weightFunction.applyAsDouble(tasks[i]));
+            total += weights[i];
+        }
+        totalWeight = total;
+        probability = new double[n];
+        alias = new int[n];
+        if (total > 0)
+        {
+            buildTable();
+        }
+    }
+
+    // Helper function to check if the table still matches the tasks and weights it was built from
+    public boolean isValidFor(SortedTaskList list, int currentWeightsVersion)
+    {
+        return list == source && list.getVersion() == sourceVersion && currentWeightsVersion == weightsVersion;
+    }
+
+    // Picks a task in proportion to its weight, never the task at excludedIndex (-1 for none)
+    // Returns null when no other task has any weight
+    public String sample(SplittableRandom random, int excludedIndex)
+    {
+        double excludedWeight = excludedIndex >= 0 ? weights[excludedIndex] : 0;
+        if (totalWeight - excludedWeight <= 0)
+        {
+            return null;
+        }
+
+        for (int attempt = 0; attempt < MAX_REJECTIONS; attempt++)
+        {
+            int column = random.nextInt(tasks.length);
+            int index = random.nextDouble() < probability[column] ? column : alias[column];
+            // Zero weight tasks can only come back through rounding error
+            if (index != excludedIndex && weights[index] > 0)
+            {
+                return tasks[index];
+            }
+        }
+
+        // The excluded task holds nearly all of the weight, pick between the rest directly
+        double target = random.nextDouble() * (totalWeight - excludedWeight);
+        int last = -1;
+        for (int i = 0; i < tasks.length; i++)
+        {
+            if (i == excludedIndex || weights[i] <= 0)
+            {
+                continue;
+            }
+            last = i;
+            target -= weights[i];
+            if (target < 0)
+            {
+                return tasks[i];
+            }
+        }
+        return tasks[last];
+    }
+
+    // Splits each column between its own task and one alias so every column holds the average weight
+    private void buildTable()
+    {
+        int n = tasks.length;
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < n; i++)
+        {
+            scaled[i] = weights[i] * n / totalWeight;
+            if (scaled[i] < 1)
+            {
+                small[smallCount++] = i;
+            }
+            else
+            {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0)
+        {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1)
+            {
+                small[smallCount++] = more;
+            }
+            else
+            {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left is full up to rounding error
+        while (largeCount > 0)
+        {
+            int index = large[--largeCount];
+            probability[index] = 1;
+            alias[index] = index;
+        }
+        while (smallCount > 0)
+        {
+            int index = small[--smallCount];
+            probability[index] = 1;
+            alias[index] = index;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.tasktracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Search index over the task names shown in every section, kept up to date as rows are added and removed
+// Each query term of three or more characters must appear anywhere in the name and is looked up in trigram postings,
+// shorter terms must start a word and are looked up in a word prefix trie
+// Only the names in the smallest posting list are checked against the query, so a search costs what it finds
+// Removed names are only dropped from the postings when the whole index is rebuilt, once they outnumber the live ones
+public class TaskSearchIndex
+{
+    private static final int GRAM_LENGTH = 3;
+    // Terms this long or shorter go through the trie, so it never has to be deeper
+    private static final int MAX_PREFIX_LENGTH = GRAM_LENGTH - 1;
+    // Removed names the postings may hold before a rebuild is considered
+    private static final int MIN_REBUILD_REMOVED = 1024;
+
+    // Names by id, a name keeps its id while any row shows it, ids of removed names are null until the next rebuild
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<String> lowerNames = new ArrayList<>();
+    private int[] rowCounts = new int[16];
+    private int removedCount;
+    // Bumped by every rebuild, ids from before it mean something else
+    private int generation;
+
+    private final Map<Long, PostingList> trigrams = new HashMap<>();
+    private TrieNode prefixes = new TrieNode();
+
+    // Number of distinct names in the index
+    public int size()
+    {
+        return ids.size();
+    }
+
+    // Id of a task name, -1 if no row shows it, ids stay the same until the generation changes
+    public int idOf(String task)
+    {
+        Integer id = ids.get(task);
+        return id == null ? -1 : id;
+    }
+
+    public int getGeneration()
+    {
+        return generation;
+    }
+
+    // Counts one more row showing the task
+    public void add(String task)
+    {
+        Integer id = ids.get(task);
+        if (id != null)
+        {
+            rowCounts[id]++;
+            return;
+        }
+        index(task, 1);
+    }
+
+    // Counts one less row showing the task, the name leaves the index with its last row
+    public void remove(String task)
+    {
+        Integer id = ids.get(task);
+        if (id == null || --rowCounts[id] > 0)
+        {
+            return;
+        }
+
+        // Searches skip the id until the rebuild drops it from the postings
+        ids.remove(task);
+        names.set(id, null);
+        lowerNames.set(id, null);
+        removedCount++;
+        if (removedCount >= MIN_REBUILD_REMOVED && removedCount > ids.size())
+        {
+            rebuild();
+        }
+    }
+
+    // Names matching every term of the query, null if the query is blank and nothing should be filtered
+    // When the query only narrows the previous one, just the previous matches are checked again
+    public Matches search(String query, Matches previous)
+    {
+        String[] terms = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        if (terms[0].isEmpty())
+        {
+            return null;
+        }
+
+        Matches matches = new Matches(terms);
+        if (previous != null && previous.generation == generation && matches.isNarrowerThan(previous))
+        {
+            BitSet candidates = previous.ids;
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1))
+            {
+                check(matches, id);
+            }
+            // Names added since the previous search were never checked
+            for (int id = previous.searchedIds; id < names.size(); id++)
+            {
+                check(matches, id);
+            }
+            return matches;
+        }
+
+        // Start from the rarest term, every other term is checked on those names only
+        PostingList candidates = null;
+        for (String term : terms)
+        {
+            PostingList posting = postingFor(term);
+            if (posting == null)
+            {
+                return matches;
+            }
+            if (candidates == null || posting.size < candidates.size)
+            {
+                candidates = posting;
+            }
+        }
+        for (int i = 0; i < candidates.size; i++)
+        {
+            check(matches, candidates.ids[i]);
+        }
+        return matches;
+    }
+
+    private void check(Matches matches, int id)
+    {
+        String lowerName = lowerNames.get(id);
+        if (lowerName != null && matchesAll(lowerName, matches.terms))
+        {
+            matches.ids.set(id);
+            matches.count++;
+        }
+    }
+
+    // Gives a name a new id with its row count and adds it to the postings
+    private void index(String task, int rowCount)
+    {
+        int id = names.size();
+        String lower = task.toLowerCase(Locale.ROOT);
+        names.add(task);
+        lowerNames.add(lower);
+        if (id == rowCounts.length)
+        {
+            rowCounts = Arrays.copyOf(rowCounts, id * 2);
+        }
+        ids.put(task, id);
+        rowCounts[id] = rowCount;
+
+        // Ids only grow, so a name seen twice in one posting is always its last entry
+        for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++)
+        {
+            trigrams.computeIfAbsent(trigram(lower, i), key -> new PostingList()).addOnce(id);
+        }
+        for (int i = 0; i < lower.length(); i++)
+        {
+            if (!startsWordAt(lower, i))
+            {
+                continue;
+            }
+            TrieNode node = prefixes;
+            for (int length = 0; length < MAX_PREFIX_LENGTH && i + length < lower.length(); length++)
+            {
+                char c = lower.charAt(i + length);
+                if (!Character.isLetterOrDigit(c))
+                {
+                    break;
+                }
+                node = node.children.computeIfAbsent(c, key -> new TrieNode());
+                node.ids.addOnce(id);
+            }
+        }
+    }
+
+    // Indexes the remaining names again with dense ids, each rebuild is paid for by the removals before it
+    private void rebuild()
+    {
+        List<String> liveNames = new ArrayList<>(ids.size());
+        int[] liveCounts = new int[ids.size()];
+        for (String name : names)
+        {
+            if (name != null)
+            {
+                liveCounts[liveNames.size()] = rowCounts[ids.get(name)];
+                liveNames.add(name);
+            }
+        }
+
+        ids.clear();
+        names.clear();
+        lowerNames.clear();
+        trigrams.clear();
+        prefixes = new TrieNode();
+        removedCount = 0;
+        generation++;
+        for (int i = 0; i < liveNames.size(); i++)
+        {
+            index(liveNames.get(i), liveCounts[i]);
+        }
+    }
+
+    // Helper function to find the smallest posting list every name matching a term is in, null if none can match
+    private PostingList postingFor(String term)
+    {
+        if (term.length() <= MAX_PREFIX_LENGTH)
+        {
+            TrieNode node = prefixes;
+            for (int i = 0; i < term.length() && node != null; i++)
+            {
+                node = node.children.get(term.charAt(i));
+            }
+            return node == null ? null : node.ids;
+        }
+
+        PostingList smallest = null;
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++)
+        {
+            PostingList posting = trigrams.get(trigram(term, i));
+            if (posting == null)
+            {
+                return null;
+            }
+            if (smallest == null || posting.size < smallest.size)
+            {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    private static boolean matchesAll(String lowerName, String[] terms)
+    {
+        for (String term : terms)
+        {
+            if (!matches(lowerName, term))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String lowerName, String term)
+    {
+        if (term.length() > MAX_PREFIX_LENGTH)
+        {
+            return lowerName.contains(term);
+        }
+        for (int i = lowerName.indexOf(term); i >= 0; i = lowerName.indexOf(term, i + 1))
+        {
+            if (startsWordAt(lowerName, i))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Helper function to check if a word starts at an index, words are runs of letters and digits
+    private static boolean startsWordAt(String text, int index)
+    {
+        return Character.isLetterOrDigit(text.charAt(index)) && (index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1)));
+    }
+
+    // Helper function to pack the three characters at an index into one key
+    private static long trigram(String text, int index)
+    {
+        return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+    }
+
+    // Names matched by one search, kept as ids so no set of names has to be built
+    public final class Matches
+    {
+        private final String[] terms;
+        private final BitSet ids = new BitSet();
+        private final int generation = TaskSearchIndex.this.generation;
+        // Names added after the search have higher ids and are checked directly
+        private final int searchedIds = names.size();
+        private int count;
+
+        private Matches(String[] terms)
+        {
+            this.terms = terms;
+        }
+
+        // Helper function to check if the task with an id of the current generation matches
+        // Names added since the search are checked directly
+        public boolean containsId(int id)
+        {
+            if (generation == TaskSearchIndex.this.generation && id < searchedIds)
+            {
+                return ids.get(id);
+            }
+            return matchesAll(lowerNames.get(id), terms);
+        }
+
+        // Number of distinct names matched at the time of the search
+        public int size()
+        {
+            return count;
+        }
+
+        // Helper function to check if every name matching these terms also matches the previous terms
+        // True when the query was only typed further, unless a short term grew from a word start into a substring
+        public boolean isNarrowerThan(Matches previous)
+        {
+            if (previous.terms.length > terms.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < previous.terms.length; i++)
+            {
+                String before = previous.terms[i];
+                String after = terms[i];
+                boolean last = i == previous.terms.length - 1;
+                if (last ? !after.startsWith(before) : !after.equals(before))
+                {
+                    return false;
+                }
+                if (before.length() <= MAX_PREFIX_LENGTH && after.length() > MAX_PREFIX_LENGTH)
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Ids in the order they were added
+    private static final class PostingList
+    {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void addOnce(int id)
+        {
+            if (size > 0 && ids[size - 1] == id)
+            {
+                return;
+            }
+            if (size == ids.length)
+            {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    // Node of the word prefix trie, holds every name with a word starting with the path to it
+    private static final class TrieNode
+    {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final PostingList ids = new PostingList();
+    }
+}
@@ -0,0 +1,94 @@
+package com.tasktracker;
+
+// Natural order sort key for a task, computed once so comparisons do no parsing or allocation
+public class TaskSortKey implements Comparable<TaskSortKey>
+{
+    // Numbers with more digits than this are compared by their digits instead of as a long
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final String task;
+    // Task with every character case folded, comparing these matches compareToIgnoreCase
+    private final String folded;
+    private final boolean hasNumber;
+    private final long number;
+    // Digits of the leading number without leading zeros, only kept when it is too long for a long
+    private final String bigNumber;
+
+    public TaskSortKey(String task)
+    {
+        this.task = task;
+        this.folded = fold(task);
+
+        // The leading number is every digit in the first whitespace separated word (e.g. "12:" or "1a2")
+        StringBuilder digits = null;
+        for (int i = 0; i < task.length() && !Character.isWhitespace(task.charAt(i)); i++)
+        {
+            char ch = task.charAt(i);
+            if (ch >= '0' && ch <= '9')
+            {
+                if (digits == null)
+                {
+                    digits = new StringBuilder();
+                }
+                if (digits.length() > 0 || ch != '0')
+                {
+                    digits.append(ch);
+                }
+            }
+        }
+
+        this.hasNumber = digits != null;
+        if (digits == null || digits.length() <= MAX_LONG_DIGITS)
+        {
+            this.number = digits == null || digits.length() == 0 ? 0 : Long.parseLong(digits.toString());
+            this.bigNumber = null;
+        }
+        else
+        {
+            this.number = Long.MAX_VALUE;
+            this.bigNumber = digits.toString();
+        }
+    }
+
+    @Override
+    public int compareTo(TaskSortKey other)
+    {
+        // If both have numbers, compare the numbers numerically
+        if (hasNumber && other.hasNumber)
+        {
+            int numCompare = compareNumbers(other);
+            if (numCompare != 0)
+            {
+                return numCompare;
+            }
+        }
+
+        // If numbers are equal or one doesn't have a number, fallback to alphabetical
+        return folded.compareTo(other.folded);
+    }
+
+    private int compareNumbers(TaskSortKey other)
+    {
+        if (bigNumber == null || other.bigNumber == null)
+        {
+            return Long.compare(number, other.number);
+        }
+        // Both are too long for a long, more digits means a bigger number
+        if (bigNumber.length() != other.bigNumber.length())
+        {
+            return Integer.compare(bigNumber.length(), other.bigNumber.length());
+        }
+        return bigNumber.compareTo(other.bigNumber);
+    }
+
+    // Folds case the same way String.compareToIgnoreCase does
+    private static String fold(String s)
+    {
+        char[] chars = s.toCharArray();
+        for (int i = 0; i < chars.length; i++)
+        {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+}
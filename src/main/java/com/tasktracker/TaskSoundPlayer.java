@@ -0,0 +1,169 @@
+package com.tasktracker;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.audio.AudioPlayer;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Sound effects loaded once and kept in memory, each in an open clip that is rewound to play it again
+// Sounds are played on one background thread with room for a single waiting sound, a newer sound replaces the waiting
+// one and a sound that is still playing starts over, so fast clicking never builds up a backlog
+@Slf4j
+public class TaskSoundPlayer
+{
+    private static final String SOUND_PATH = "/com/tasktracker/audio/";
+
+    private final AudioPlayer audioPlayer;
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.DiscardOldestPolicy())
+    {
+        // Runs once the last sound task has finished, even if shutDown stopped waiting for it before then
+        @Override
+        protected void terminated()
+        {
+            closeSounds();
+        }
+    };
+    // Only used by tasks on the executor, and by terminated once every task has finished
+    private final Map<String, LoadedSound> sounds = new HashMap<>();
+
+    // Starts loading the sounds in the background, plays asked for before they are loaded wait for them
+    public TaskSoundPlayer(AudioPlayer audioPlayer, String... soundFiles)
+    {
+        this.audioPlayer = audioPlayer;
+        executor.execute(() ->
+        {
+            for (String soundFile : soundFiles)
+            {
+                load(soundFile);
+            }
+        });
+    }
+
+    // Plays a loaded sound, restarting it if it is still playing
+    public void play(String soundFile)
+    {
+        if (executor.isShutdown())
+        {
+            return;
+        }
+        executor.execute(() ->
+        {
+            LoadedSound sound = sounds.get(soundFile);
+            if (sound == null)
+            {
+                log.warn("Sound file not loaded :{}", soundFile);
+                return;
+            }
+
+            try
+            {
+                if (sound.clip == null)
+                {
+                    // No clip could be opened, the audio player decodes the file from memory instead
+                    audioPlayer.play(new ByteArrayInputStream(sound.file), 0);
+                    return;
+                }
+                sound.clip.stop();
+                sound.clip.setFramePosition(0);
+                sound.clip.start();
+            }
+            catch (Exception e)
+            {
+                log.error("Failed to play sound: " + soundFile, e);
+            }
+        });
+    }
+
+    // Drops the waiting sound, every clip is closed as soon as the sound being played or loaded has finished
+    public void shutDown()
+    {
+        executor.shutdownNow();
+        try
+        {
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS))
+            {
+                log.warn("Timed out waiting for sound playback to stop, its clips are closed once it does");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Helper function to close every clip, only called from terminated so no task can still be using them
+    private void closeSounds()
+    {
+        for (LoadedSound sound : sounds.values())
+        {
+            if (sound.clip != null)
+            {
+                sound.clip.close();
+            }
+        }
+        sounds.clear();
+    }
+
+    // Helper function to read a sound from resources and decode it into a clip
+    private void load(String soundFile)
+    {
+        String path = SOUND_PATH + soundFile;
+        byte[] file;
+        try (InputStream stream = getClass().getResourceAsStream(path))
+        {
+            if (stream == null)
+            {
+                log.warn("Sound file not found :{}", path);
+                return;
+            }
+            file = stream.readAllBytes();
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to load sound: " + soundFile, e);
+            return;
+        }
+
+        Clip clip = null;
+        try (AudioInputStream audio = AudioSystem.getAudioInputStream(new ByteArrayInputStream(file)))
+        {
+            byte[] samples = audio.readAllBytes();
+            clip = AudioSystem.getClip();
+            clip.open(audio.getFormat(), samples, 0, samples.length);
+        }
+        catch (Exception e)
+        {
+            // Without an output line the file is kept and handed to the audio player on every play
+            log.debug("Could not open a clip for sound: {}", soundFile, e);
+            if (clip != null)
+            {
+                clip.close();
+                clip = null;
+            }
+        }
+        sounds.put(soundFile, new LoadedSound(file, clip));
+    }
+
+    // A sound file and its open clip, the clip is null when no output line was available
+    private static final class LoadedSound
+    {
+        private final byte[] file;
+        private final Clip clip;
+
+        private LoadedSound(byte[] file, Clip clip)
+        {
+            this.file = file;
+            this.clip = clip;
+        }
+    }
+}
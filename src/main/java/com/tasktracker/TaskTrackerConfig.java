@@ -7,6 +7,7 @@ import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
 import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 import java.awt.Color;
 
 @ConfigGroup("tasktracker")
@@ -148,17 +149,161 @@ public interface TaskTrackerConfig extends Config
         return Color.GREEN;
     }
 
+    @Getter
+    @RequiredArgsConstructor
+    enum RollMode
+    {
+        WEIGHTED("Weighted Random"),
+        SHUFFLE_BAG("No Repeats");
+
+        private final String name;
+
+        // RuneLite uses toString() to determine what text shows in the dropdown
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
+
+    @ConfigItem(
+            keyName = "rollMode",
+            name = "Roll Mode",
+            description = "Weighted Random picks by roll weight. No Repeats rolls every active task once before any task comes up again.",
+            position = 10
+    )
+    default RollMode rollMode()
+    {
+        return RollMode.WEIGHTED;
+    }
+
+    @Range(min = 0, max = 600000)
+    @Units(Units.MILLISECONDS)
+    @ConfigItem(
+            keyName = "saveDelay",
+            name = "Snapshot Delay",
+            description = "How long to wait after a change before saving all task data to config. Changes are written to a journal file right away, so nothing is lost in between.",
+            position = 11
+    )
+    default int saveDelay()
+    {
+        return 30000;
+    }
+
+    @ConfigItem(
+            keyName = "compactStorage",
+            name = "Compact Storage",
+            description = "Save task data in a compact binary format instead of json. Both formats can always be loaded.",
+            position = 12
+    )
+    default boolean compactStorage()
+    {
+        return true;
+    }
+
+    @ConfigSection(
+            name = "Roll Weights",
+            description = "How likely tasks of each category are to be rolled, e.g. 3 makes quests three times as likely.",
+            position = 13,
+            closedByDefault = true
+    )
+    String rollWeightsSection = "rollWeightsSection";
+
+    @ConfigItem(
+            keyName = "questWeight",
+            name = "Quest Weight",
+            description = "Roll weight of quests, multiplied with the weight set on a task.",
+            section = rollWeightsSection,
+            position = 14
+    )
+    default double questWeight()
+    {
+        return 1.0;
+    }
+
+    @ConfigItem(
+            keyName = "combatWeight",
+            name = "Kill Weight",
+            description = "Roll weight of kill and slayer tasks, multiplied with the weight set on a task.",
+            section = rollWeightsSection,
+            position = 15
+    )
+    default double combatWeight()
+    {
+        return 1.0;
+    }
+
+    @ConfigItem(
+            keyName = "statsWeight",
+            name = "Skill Weight",
+            description = "Roll weight of level, exp and skill tasks, multiplied with the weight set on a task.",
+            section = rollWeightsSection,
+            position = 16
+    )
+    default double statsWeight()
+    {
+        return 1.0;
+    }
+
+    @ConfigItem(
+            keyName = "equipmentWeight",
+            name = "Obtain Weight",
+            description = "Roll weight of obtain tasks, multiplied with the weight set on a task.",
+            section = rollWeightsSection,
+            position = 17
+    )
+    default double equipmentWeight()
+    {
+        return 1.0;
+    }
+
+    @ConfigItem(
+            keyName = "diaryWeight",
+            name = "Diary Weight",
+            description = "Roll weight of achievement diary tasks, multiplied with the weight set on a task.",
+            section = rollWeightsSection,
+            position = 18
+    )
+    default double diaryWeight()
+    {
+        return 1.0;
+    }
+
+    @ConfigItem(
+            keyName = "geWeight",
+            name = "Buy Weight",
+            description = "Roll weight of buy tasks, multiplied with the weight set on a task.",
+            section = rollWeightsSection,
+            position = 19
+    )
+    default double geWeight()
+    {
+        return 1.0;
+    }
+
+    @ConfigItem(
+            keyName = "otherWeight",
+            name = "Other Weight",
+            description = "Roll weight of tasks without a category, multiplied with the weight set on a task.",
+            section = rollWeightsSection,
+            position = 20
+    )
+    default double otherWeight()
+    {
+        return 1.0;
+    }
+
     @ConfigSection(
             name = "WARNING: IF YOU CLICK RESET THIS WILL ALSO CLEAR ALL TASK DATA!",
-            description = "Only click rest after you have saved your task data in a safe location.",
-            position = 10
+            description = "Only click reset after you have saved your task data in a safe location. Reset clears the current, active, backlog and completed tasks.",
+            position = 21
     )
     String warningSection = "warningSection";
 
     @ConfigItem(
             keyName = "allTasksJson",
             name = "All Tasks Json",
-            description = "Json of all tasks currently saved in config",
+            description = "All task data as saved by older versions, moved to the keys below on the next start",
             hidden = true,
             position = 30
     )
@@ -166,4 +311,89 @@ public interface TaskTrackerConfig extends Config
     {
         return "";
     }
+
+    // Task data is saved under these keys, completed tasks under an undeclared key per month that the manifest lists
+    @ConfigItem(
+            keyName = "shardManifest",
+            name = "Task Data Manifest",
+            description = "Saved months of completed tasks and journal position",
+            hidden = true,
+            position = 31
+    )
+    default String shardManifest()
+    {
+        return "";
+    }
+
+    @ConfigItem(
+            keyName = "currentTask",
+            name = "Current Task",
+            description = "Saved current task",
+            hidden = true,
+            position = 32
+    )
+    default String currentTask()
+    {
+        return "";
+    }
+
+    @ConfigItem(
+            keyName = "activeTasks",
+            name = "Active Tasks",
+            description = "Saved active tasks",
+            hidden = true,
+            position = 33
+    )
+    default String activeTasks()
+    {
+        return "";
+    }
+
+    @ConfigItem(
+            keyName = "backlogTasks",
+            name = "Backlog Tasks",
+            description = "Saved backlog tasks",
+            hidden = true,
+            position = 34
+    )
+    default String backlogTasks()
+    {
+        return "";
+    }
+
+    @ConfigItem(
+            keyName = "repeatableTasks",
+            name = "Repeatable Tasks",
+            description = "Saved repeatable tasks",
+            hidden = true,
+            position = 35
+    )
+    default String repeatableTasks()
+    {
+        return "";
+    }
+
+    @ConfigItem(
+            keyName = "taskWeights",
+            name = "Task Weights",
+            description = "Saved roll weights of single tasks",
+            hidden = true,
+            position = 36
+    )
+    default String taskWeights()
+    {
+        return "";
+    }
+
+    @ConfigItem(
+            keyName = "rollBag",
+            name = "Roll Bag",
+            description = "Saved tasks already rolled this round in No Repeats mode",
+            hidden = true,
+            position = 37
+    )
+    default String rollBag()
+    {
+        return "";
+    }
 }
@@ -1,19 +1,27 @@
 package com.tasktracker;
 
 import lombok.Data;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Data
 public class TaskTrackerData
 {
     private String currentTask = "";
-    private List<String> active = new ArrayList<>();
-    private List<String> backlog = new ArrayList<>();
-    private List<CompletedTask> completed = new ArrayList<>();
+    private SortedTaskList active = new SortedTaskList();
+    private SortedTaskList backlog = new SortedTaskList();
+    // Completed tasks are always kept oldest first, the sort style only changes the direction they are shown in
+    private CompletedTaskHistory completed = new CompletedTaskHistory();
     private Set<String> repeatableTasks = new HashSet<>();
+    // Roll weight of tasks that don't use the default of 1, multiplied with the weight of the task's category
+    private Map<String, Double> taskWeights = new HashMap<>();
+    // Active tasks split into those rolled this round and the rest, for the no repeats roll mode
+    private ShuffleBag rollBag = new ShuffleBag();
+    // Identifies the journal this snapshot belongs to, and the last journal operation already applied to it
+    private long journalEpoch;
+    private long journalSequence;
 
     // For existing users updating
     public Set<String> getRepeatableTasks()
@@ -24,5 +32,42 @@ public class TaskTrackerData
         }
         return repeatableTasks;
     }
-}
 
+    public Map<String, Double> getTaskWeights()
+    {
+        if (taskWeights == null)
+        {
+            taskWeights = new HashMap<>();
+        }
+        return taskWeights;
+    }
+
+    public double getTaskWeight(String task)
+    {
+        return getTaskWeights().getOrDefault(task, 1.0);
+    }
+
+    // Adds a task to the active list and the roll bag
+    public void addActive(String task)
+    {
+        if (active.add(task))
+        {
+            rollBag.add(task);
+        }
+    }
+
+    // Removes a task from the active list and the roll bag
+    public void removeActive(String task)
+    {
+        if (active.remove(task))
+        {
+            rollBag.remove(task);
+        }
+    }
+
+    // Adds a completed task in time order, new completions are appended without searching
+    public void addCompleted(CompletedTask task)
+    {
+        completed.insert(task);
+    }
+}
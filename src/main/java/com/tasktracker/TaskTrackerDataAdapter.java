@@ -0,0 +1,141 @@
+package com.tasktracker;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+// Streaming json reader for the task data saved in the single key layout, the same layout reflective Gson wrote
+// Only read to migrate saves from before the data was split into shards, the list shards share its list helpers
+// A completed count before the history, written by some versions, lets it be allocated once
+public class TaskTrackerDataAdapter
+{
+    private final CompletedTaskAdapter completedTaskAdapter = new CompletedTaskAdapter();
+
+    // Reads the task data saved as one json value in the single key layout
+    public TaskTrackerData fromJson(String json) throws IOException
+    {
+        return read(new JsonReader(new StringReader(json)));
+    }
+
+    public TaskTrackerData read(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+
+        TaskTrackerData data = new TaskTrackerData();
+        int completedCount = 0;
+        in.beginObject();
+        while (in.hasNext())
+        {
+            switch (in.nextName())
+            {
+                case "currentTask":
+                    String currentTask = readString(in);
+                    data.setCurrentTask(currentTask == null ? "" : currentTask);
+                    break;
+                case "active":
+                    readTasks(in, data.getActive());
+                    break;
+                case "backlog":
+                    readTasks(in, data.getBacklog());
+                    break;
+                case "completedCount":
+                    completedCount = in.nextInt();
+                    break;
+                case "completed":
+                    data.setCompleted(readCompleted(in, completedCount));
+                    break;
+                case "repeatableTasks":
+                    // Older saves can have no repeatable tasks at all
+                    Set<String> repeatableTasks = new HashSet<>();
+                    readTasks(in, repeatableTasks);
+                    data.setRepeatableTasks(repeatableTasks);
+                    break;
+                case "journalEpoch":
+                    data.setJournalEpoch(in.nextLong());
+                    break;
+                case "journalSequence":
+                    data.setJournalSequence(in.nextLong());
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return data;
+    }
+
+    private CompletedTaskHistory readCompleted(JsonReader in, int capacityHint) throws IOException
+    {
+        CompletedTaskHistory completed = new CompletedTaskHistory(capacityHint);
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return completed;
+        }
+
+        in.beginArray();
+        while (in.hasNext())
+        {
+            CompletedTask task = completedTaskAdapter.read(in);
+            if (task != null && task.getTask() != null)
+            {
+                completed.add(task);
+            }
+        }
+        in.endArray();
+        // Older saves stored completed tasks newest first
+        completed.sortByTime();
+        return completed;
+    }
+
+    static void writeTasks(JsonWriter out, Collection<String> tasks) throws IOException
+    {
+        out.beginArray();
+        for (String task : tasks)
+        {
+            out.value(task);
+        }
+        out.endArray();
+    }
+
+    static void readTasks(JsonReader in, Collection<String> tasks) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return;
+        }
+
+        in.beginArray();
+        while (in.hasNext())
+        {
+            String task = readString(in);
+            if (task != null)
+            {
+                tasks.add(task);
+            }
+        }
+        in.endArray();
+    }
+
+    // Helper function to read a string that may be null
+    static String readString(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
@@ -1,41 +1,50 @@
 package com.tasktracker;
 
-import net.runelite.api.SpriteID;
 import net.runelite.client.game.SpriteManager;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.FontManager;
 import net.runelite.client.ui.PluginPanel;
+import net.runelite.client.ui.components.IconTextField;
 import net.runelite.client.util.ImageUtil;
 import javax.swing.BorderFactory;
-import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JDialog;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
-import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
+import javax.swing.ListCellRenderer;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Cursor;
+import java.awt.Dimension;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
+import java.awt.GridLayout;
 import java.awt.Insets;
+import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
-import java.text.SimpleDateFormat;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TaskTrackerPanel extends PluginPanel
 {
@@ -47,6 +56,7 @@ public class TaskTrackerPanel extends PluginPanel
     // Current Task section of UI
     private final JPanel currentTaskPanel = new JPanel();
     private final JLabel currentTaskLabel = new JLabel("No Current Task");
+    private final JLabel currentTaskIcon = new JLabel();
     private final JButton rollTaskButton = new JButton("Roll Task", ROLL_ICON);
     private final JButton completeTaskButton = new JButton("Complete Task", CHECK_ICON);
     private final JButton backlogTaskButton = new JButton("Backlog Task", ARROW_ICON);
@@ -62,11 +72,31 @@ public class TaskTrackerPanel extends PluginPanel
     private final JLabel completedHeader =  new JLabel(completedString);
     private final JPanel completedListPanel = new JPanel();
     private final JButton completedButton =  new JButton("Edit | Details");
+    // Statistics section of UI, collapsed until its header is clicked
+    private final CompletionHeatmap completionHeatmap = new CompletionHeatmap();
+    private final int[] heatmapCounts = new int[CompletionHeatmap.DAYS];
+
+    private static final String statsString = "Statistics";
+    private final JLabel statsHeader = new JLabel();
+    private final JPanel statsPanel = new JPanel(new GridLayout(0, 1, 0, 4));
+    private final JLabel[] statsLabels = new JLabel[8];
+    private boolean statsExpanded;
+    // Filter box above the sections, matches are found in an index over every row of every list
+    private final IconTextField filterField = new IconTextField();
+    private final TaskSearchIndex searchIndex = new TaskSearchIndex();
+    // Tasks matching the filter, null when the filter is empty
+    private TaskSearchIndex.Matches filterMatches;
+    // List sections keyed by section header, each renders only the rows that are visible
+    private final Map<String, TaskListSection> listSections = new HashMap<>();
+    // Render settings used for the last paint, lists are repainted when these change
+    private List<Object> lastRenderSettings;
+    // Whether the backlog section was part of the last full build
+    private boolean backlogShown;
     // Border used in UI construction
     private final Border compoundBorder = BorderFactory.createCompoundBorder(BorderFactory.createLineBorder(Color.WHITE), BorderFactory.createEmptyBorder(10,10,10,10));
     // Managers and logger
     private final TaskTrackerPlugin plugin;
-    private final SpriteManager spriteManager;
+    private final TaskIconCache iconCache;
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TaskTrackerPanel.class);
     // Button Icons
     private static final ImageIcon ROLL_ICON;
@@ -93,7 +123,7 @@ public class TaskTrackerPanel extends PluginPanel
     {
         super();
         this.plugin = plugin;
-        this.spriteManager = spriteManager;
+        this.iconCache = new TaskIconCache(spriteManager);
 
         setLayout(new GridBagLayout());
         setBackground(ColorScheme.DARK_GRAY_COLOR);
@@ -101,6 +131,18 @@ public class TaskTrackerPanel extends PluginPanel
 
         // Add action listeners to buttons
         addButtonListeners();
+        setupFilterField();
+
+        // Create the virtualized task lists
+        listSections.put(activeString, new TaskListSection(activeString));
+        listSections.put(backlogString, new TaskListSection(backlogString));
+        listSections.put(completedString, new TaskListSection(completedString));
+
+        // Statistics are only read while their section is open
+        setupStatsPanel();
+
+        // Load the category icons once, they are shared by every row
+        iconCache.warm(this::onIconsLoaded);
 
     }
 
@@ -117,6 +159,11 @@ public class TaskTrackerPanel extends PluginPanel
 
         // Get content from config
         TaskTrackerData data = plugin.getTaskData();
+        backlogShown = plugin.isBacklogEnabled();
+
+        // Filter box above every section
+        add(filterField, c);
+        c.gridy++;
 
         // SECTION 1: Current Task
         addSection(this, c, new JLabel(currentString), currentTaskPanel, rollTaskButton, data.getActive(), currentString);
@@ -125,7 +172,7 @@ public class TaskTrackerPanel extends PluginPanel
         addSection(this, c, activeHeader, activeListPanel, activeButton, data.getActive(), activeString);
 
         // SECTION 3: Backlog
-        if (plugin.isBacklogEnabled())
+        if (backlogShown)
         {
             addSection(this, c, backlogHeader, backlogListPanel, backlogButton, data.getBacklog(), backlogString);
         }
@@ -133,6 +180,19 @@ public class TaskTrackerPanel extends PluginPanel
         // SECTION 4: Completed Tasks
         addSection(this, c, completedHeader, completedListPanel, completedButton, plugin.getCompletedTaskList(), completedString);
 
+        // SECTION 5: Statistics
+        add(statsHeader, c);
+        c.gridy++;
+        add(statsPanel, c);
+        c.gridy++;
+        updateStats();
+
+        // A rebuilt panel keeps showing what the filter matches
+        if (filterMatches != null)
+        {
+            applyFilter();
+        }
+
         revalidate();
         repaint();
     }
@@ -163,10 +223,16 @@ public class TaskTrackerPanel extends PluginPanel
         SwingUtilities.invokeLater(() -> {
             try
             {
-                this.removeAll(); // Clear the entire panel
-                setupSections();  // Re-run logic to add headers, lists, and buttons
-                this.revalidate();
-                this.repaint();
+                // Showing or hiding a section changes the layout, so rebuild everything
+                if (backlogShown != plugin.isBacklogEnabled())
+                {
+                    this.removeAll(); // Clear the entire panel
+                    setupSections();  // Re-run logic to add headers, lists, and buttons
+                }
+                else
+                {
+                    updateSections(); // Only apply what changed to the existing components
+                }
             }
             catch (Exception e)
             {
@@ -176,101 +242,175 @@ public class TaskTrackerPanel extends PluginPanel
         });
     }
 
+    // Function used to bring the existing sections up to date with the task data
+    private void updateSections()
+    {
+        TaskTrackerData data = plugin.getTaskData();
+
+        updateTaskButtonLabel();
+
+        // Lists first, headers count the rows the filter left in them
+        updateListPanel(activeListPanel, data.getActive(), activeString);
+        updateHeader(activeHeader, data.getActive(), activeString);
+
+        if (backlogShown)
+        {
+            updateListPanel(backlogListPanel, data.getBacklog(), backlogString);
+            updateHeader(backlogHeader, data.getBacklog(), backlogString);
+        }
+
+        updateCompletedPanel();
+        updateHeader(completedHeader, data.getCompleted().size(), completedString);
+        updateHeatmap();
+
+        updateCurrentTask();
+        updateRenderSettings();
+        updateStats();
+    }
+
     // Button function allows user to edit tasks
     private void openEditDialog(String title, String key)
     {
         TaskTrackerData data = plugin.getTaskData();
-        List<CompletedTask> completedTasks = data.getCompleted();
-        SimpleDateFormat dateFormat = plugin.getDateTimeFormat();
-        List<String> currentList;
         String windowTitle = "Edit " + title;
 
-        // Determine which list we are editing
+        // Determine which list we are editing, lines are only built for the pages the user looks at
+        TaskListEditor editor;
         switch (key) {
             case "active":
-                currentList = data.getActive();
+                List<String> activeTasks = new ArrayList<>(data.getActive());
+                editor = new TaskListEditor(activeTasks::get, activeTasks.size(), null);
                 break;
             case "backlog":
-                currentList = data.getBacklog();
+                List<String> backlogTasks = new ArrayList<>(data.getBacklog());
+                editor = new TaskListEditor(backlogTasks::get, backlogTasks.size(), null);
                 break;
             case "completed":
-                currentList = new ArrayList<>();
-                for (CompletedTask task : completedTasks)
-                {
-                    if (dateFormat != null)
-                    {
-                        Date date = new Date(task.getCompletedAt());
-
-                        currentList.add(dateFormat.format(date) + " - " + task.getTask());
-                    }
-                    else
-                    {
-                        currentList.add(task.getTask());
-                    }
-                }
+                List<CompletedTask> completedTasks = new ArrayList<>(plugin.getCompletedTasks());
+                TimestampFormatter timestampFormatter = plugin.getTimestampFormatter();
+                DateTimeFormatter parser = plugin.getTimestampParser();
+                String expectedFormat = plugin.getTimestampFormat();
+                editor = new TaskListEditor(
+                        i -> timestampFormatter.format(completedTasks.get(i).getCompletedAt()) + " - " + completedTasks.get(i).getTask(),
+                        completedTasks.size(),
+                        line -> TaskImporter.checkCompletedLine(line, parser, expectedFormat));
                 break;
             default:
                 return;
         }
 
-        // Convert List to a single String with new lines, this will be the starting text
-        String textToShow = String.join("\n", currentList);
-
-        while (true)
+        // Layout the panel
+        JPanel mainPanel = new JPanel(new BorderLayout(0, 10));
+        mainPanel.add(new JLabel("One task per line:"), BorderLayout.NORTH);
+        mainPanel.add(editor, BorderLayout.CENTER);
+
+
+        // Create the "Clear All" button
+        JButton clearButton = new JButton("Clear All");
+        clearButton.setFocusable(false);
+        clearButton.addActionListener(e -> editor.clear());
+        mainPanel.add(clearButton, BorderLayout.SOUTH);
+
+
+        // OK stays disabled while any line is underlined
+        JButton okButton = new JButton("OK");
+        JButton cancelButton = new JButton("Cancel");
+        JOptionPane optionPane = new JOptionPane(
+                mainPanel,
+                JOptionPane.PLAIN_MESSAGE,
+                JOptionPane.OK_CANCEL_OPTION,
+                null,
+                new Object[]{okButton, cancelButton},
+                okButton
+        );
+        okButton.addActionListener(e -> optionPane.setValue(okButton));
+        cancelButton.addActionListener(e -> optionPane.setValue(cancelButton));
+        editor.addPropertyChangeListener(TaskListEditor.ERROR_COUNT_PROPERTY, e -> okButton.setEnabled(editor.getErrorCount() == 0));
+
+        JDialog dialog = optionPane.createDialog(this, windowTitle);
+        dialog.setResizable(true);
+        try
         {
-            // Create a Text Area for the user to type in
-            JTextArea textArea = new JTextArea(textToShow);
-            textArea.setRows(10);
-            textArea.setColumns(40);
-            textArea.setBackground(ColorScheme.DARKER_GRAY_COLOR);
-            textArea.setForeground(Color.WHITE);
-            textArea.setCaretColor(Color.WHITE);
-
-            JScrollPane scrollPane = new JScrollPane(textArea);
+            while (true)
+            {
+                // Show the Dialog
+                optionPane.setValue(JOptionPane.UNINITIALIZED_VALUE);
+                dialog.setVisible(true);
 
-            // Layout the panel
-            JPanel mainPanel = new JPanel(new BorderLayout(0, 10));
-            mainPanel.add(new JLabel("One task per line:"), BorderLayout.NORTH);
-            mainPanel.add(scrollPane, BorderLayout.CENTER);
+                // User cancelled
+                if (optionPane.getValue() != okButton)
+                {
+                    break;
+                }
 
+                // Lines typed right before OK may not have been checked yet
+                if (!editor.validateNow())
+                {
+                    editor.showFirstError();
+                    continue;
+                }
 
-            // Create the "Clear All" button
-            JButton clearButton = new JButton("Clear All");
-            clearButton.setFocusable(false);
-            clearButton.addActionListener(e -> textArea.setText(""));
-            mainPanel.add(clearButton, BorderLayout.SOUTH);
+                // Nothing to apply if the user only looked at the list
+                if (!editor.isEdited() || plugin.updateListFromText(data, key, editor.getText()))
+                {
+                    break;
+                }
 
+                // If the update failed the dialog opens again with the user's text so they can fix it
+            }
+        }
+        finally
+        {
+            editor.dispose();
+            dialog.dispose();
+        }
+    }
 
-            // Show the Dialog
-            int result = JOptionPane.showConfirmDialog(
+    // Asks for a new roll weight for a task, 0 means it is never rolled
+    private void editTaskWeight(String task)
+    {
+        String input = formatWeight(plugin.getTaskWeight(task));
+        while (true)
+        {
+            input = (String) JOptionPane.showInputDialog(
                     this,
-                    mainPanel,
-                    windowTitle,
-                    JOptionPane.OK_CANCEL_OPTION,
-                    JOptionPane.PLAIN_MESSAGE
+                    "Roll weight for " + task + "\n(1 is normal, 2 is twice as likely, 0 is never)",
+                    "Roll Weight",
+                    JOptionPane.PLAIN_MESSAGE,
+                    null,
+                    null,
+                    input
             );
 
             // User cancelled
-            if (result != JOptionPane.OK_OPTION)
+            if (input == null)
             {
-                break;
+                return;
             }
 
-            // Try to update
-            boolean success = plugin.updateListFromText(data, key, textArea.getText());
-
-            if (success)
+            try
             {
-                break;
+                double weight = Double.parseDouble(input.trim());
+                if (weight >= 0 && !Double.isInfinite(weight))
+                {
+                    plugin.setTaskWeight(task, weight);
+                    return;
+                }
             }
-
-            // If success is FALSE, the loop runs again
-            // Update textToShow so the textArea re-opens with the User's bad input so they can fix it instead of typing it all again
-            textToShow = textArea.getText();
-
+            catch (NumberFormatException e)
+            {
+                // Fall through to the error
+            }
+            showError("Roll weight must be a number of 0 or more, found: " + input);
         }
     }
 
+    // Helper function to show a weight without trailing zeros
+    private static String formatWeight(double weight)
+    {
+        return new DecimalFormat("0.###").format(weight);
+    }
+
     // Helper function for clean error alerts
     public void showError(String message)
     {
@@ -280,54 +420,16 @@ public class TaskTrackerPanel extends PluginPanel
     // Sets the current task icon based on recognized strings in taskText
     private void setTaskIcon(JLabel iconLabel, String taskText)
     {
-        String text = taskText.toLowerCase();
-        int spriteId = -1;
-
-        if (text.contains("quest") || TaskChecker.containsQuest(text))
-        {
-            spriteId = SpriteID.TAB_QUESTS;
-        }
-        else if (text.contains("kill") || text.contains("slayer"))
-        {
-            spriteId = SpriteID.TAB_COMBAT;
-        }
-        else if (text.contains("level") || text.contains("xp") || TaskChecker.containsSkill(text))
-        {
-            spriteId = SpriteID.TAB_STATS;
-        }
-        else if (text.contains("obtain"))
-        {
-            spriteId = SpriteID.TAB_EQUIPMENT;
-        }
-        else if (text.contains("diary"))
-        {
-            spriteId = SpriteID.TAB_QUESTS_GREEN_ACHIEVEMENT_DIARIES;
-        }
-        else if (text.contains("buy"))
-        {
-            spriteId = SpriteID.GE_GUIDE_PRICE;
-        }
+        // Null clears the icon if there is no match or it has not loaded yet
+        iconLabel.setIcon(iconCache.getIcon(TaskChecker.classify(taskText)));
+    }
 
-        if (spriteId != -1)
-        {
-            // This helper handles the asynchronous loading of game sprites
-            spriteManager.getSpriteAsync(spriteId, 0, (BufferedImage img) ->
-            {
-                if (img != null)
-                {
-                    SwingUtilities.invokeLater(() ->
-                    {
-                        iconLabel.setIcon(new ImageIcon(img));
-                        iconLabel.revalidate();
-                        iconLabel.repaint();
-                    });
-                }
-            });
-        }
-        else
-        {
-            iconLabel.setIcon(null); // Clear if no match
-        }
+    // Shows category icons that finished loading after the panel was built
+    private void onIconsLoaded()
+    {
+        setTaskIcon(currentTaskIcon, currentTaskLabel.getText());
+        listSections.get(activeString).list.repaint();
+        listSections.get(backlogString).list.repaint();
     }
 
     // Helper function to set the roll task button label
@@ -349,15 +451,7 @@ public class TaskTrackerPanel extends PluginPanel
     // Helper function used to set up and add current header into parent panel
     private void setupAndAddHeader(JPanel parent, GridBagConstraints c, JLabel header, List<String> contentList, String baseHeader)
     {
-        // Set Header Text for lists
-        if(!contentList.isEmpty() && !baseHeader.equals(currentString))
-        {
-            header.setText(baseHeader + " (" + contentList.size() + ")");
-        }
-        else
-        {
-            header.setText(baseHeader);
-        }
+        updateHeader(header, contentList, baseHeader);
 
         // Add Header (Left Aligned)
         header.setFont(FontManager.getRunescapeBoldFont());
@@ -366,6 +460,69 @@ public class TaskTrackerPanel extends PluginPanel
         c.gridy++;
     }
 
+    // Helper function to set the header text for lists
+    private void updateHeader(JLabel header, List<String> contentList, String baseHeader)
+    {
+        updateHeader(header, contentList.size(), baseHeader);
+    }
+
+    // Helper function to set the header text for lists, filtered lists show how many of their tasks match
+    private void updateHeader(JLabel header, int size, String baseHeader)
+    {
+        String text = baseHeader;
+        TaskListSection section = listSections.get(baseHeader);
+        if (section != null && section.model.isFiltered())
+        {
+            text = baseHeader + " (" + section.model.getSize() + "/" + size + ")";
+        }
+        else if(size > 0 && !baseHeader.equals(currentString))
+        {
+            text = baseHeader + " (" + size + ")";
+        }
+
+        if (!text.equals(header.getText()))
+        {
+            header.setText(text);
+        }
+    }
+
+    // Helper function to update the current task label and icon when the current task changes
+    private void updateCurrentTask()
+    {
+        String currentTask = plugin.getCurrentTaskAsString();
+        String previousTask = currentTaskLabel.getText();
+        if (currentTask.equals(previousTask))
+        {
+            return;
+        }
+
+        // Only the rows losing and gaining the highlight need to be repainted
+        TaskListSection activeSection = listSections.get(activeString);
+        activeSection.repaintTask(previousTask);
+        activeSection.repaintTask(currentTask);
+
+        setTaskIcon(currentTaskIcon,currentTask);
+        currentTaskLabel.setText(currentTask);
+        currentTaskLabel.setToolTipText(currentTask);
+    }
+
+    // Helper function to repaint every list when a setting used while rendering rows has changed
+    private void updateRenderSettings()
+    {
+        List<Object> renderSettings = Arrays.asList(plugin.newestCompletedFirst(), plugin.getShowIndex(),
+                plugin.getMilestoneInterval(), plugin.getMilestoneColor(), plugin.getCurrentTaskHighlightColor());
+        if (renderSettings.equals(lastRenderSettings))
+        {
+            return;
+        }
+
+        lastRenderSettings = renderSettings;
+        for (TaskListSection section : listSections.values())
+        {
+            section.list.repaint();
+        }
+    }
+
     // Helper function used to set up and add list panel into parent panel
     private void setupAndAddListPanel(JPanel parent, GridBagConstraints c, JPanel panel, List<String> contentList, String baseHeader )
     {
@@ -373,92 +530,38 @@ public class TaskTrackerPanel extends PluginPanel
 
         // Add Content Text (Left Aligned)
         panel.removeAll();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setLayout(new BorderLayout());
         panel.setBorder(compoundBorder);
         panel.setOpaque(false);
 
-        JLabel taskLabel;
-        JLabel taskIcon = new JLabel();
-
         if (baseHeader.equals(currentString))
         {
             panel.setLayout(new BorderLayout(10,0));
-            setTaskIcon(taskIcon,currentTask);
+            setTaskIcon(currentTaskIcon,currentTask);
             currentTaskLabel.setText(currentTask);
             currentTaskLabel.setForeground(Color.WHITE);
             currentTaskLabel.setToolTipText(currentTask);
             currentTaskLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-            panel.add(taskIcon, BorderLayout.WEST);
+            panel.add(currentTaskIcon, BorderLayout.WEST);
             panel.add(currentTaskLabel, BorderLayout.CENTER);
 
         }
+        else if (baseHeader.equals(completedString))
+        {
+            updateCompletedPanel();
+        }
         else
         {
-            // If list is empty show the no tasks label
-            if (contentList.isEmpty())
-            {
-                JLabel emptyLabel = new JLabel("No " + baseHeader);
-                emptyLabel.setForeground(Color.WHITE);
-                panel.add(emptyLabel);
-            }
-            // If list is not empty, add each task to the panel
-            else
-            {
-                int index = plugin.newestCompletedFirst() ? contentList.size() : 1;
-                boolean milestoneFound = false;
-                int milestoneInterval = plugin.getMilestoneInterval();
-                Color milestoneColor = plugin.getMilestoneColor();
-
-                for (String task : contentList)
-                {
-                    taskLabel = new JLabel();
-                    if (baseHeader.equals(completedString))
-                    {
-                        if (plugin.getShowIndex())
-                        {
-                            taskLabel.setText(index + ". " + task);
-                        }
-                        else
-                        {
-                            taskLabel.setText("• " + task);
-                        }
-                        if (milestoneInterval != 0)
-                        {
-                            if (index % milestoneInterval == 0)
-                            {
-                                milestoneFound = true;
-                                taskLabel.setForeground(milestoneColor);
-                            }
-                            else
-                            {
-                                milestoneFound = false;
-                                taskLabel.setForeground(Color.WHITE);
-                            }
-                        }
-                        else
-                        {
-                            taskLabel.setForeground(Color.WHITE);
-                        }
-                    }
-                    else
-                    {
-                        taskLabel.setText("• " + task);
-                        taskLabel.setForeground(Color.WHITE);
-                    }
-                    if (task.equals(currentTaskLabel.getText()) && baseHeader.equals(activeString))
-                    {
-                        taskLabel.setForeground(plugin.getCurrentTaskHighlightColor());
-                    }
-
-                    taskLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-                    taskLabel.setToolTipText(task);
-                    addMouseListeners(taskLabel,createPopupMenu(task,baseHeader),milestoneFound,task,baseHeader);
-                    panel.add(taskLabel);
+            updateListPanel(panel, contentList, baseHeader);
+        }
 
-                    index = plugin.newestCompletedFirst() ? index - 1 : index + 1;
-                }
-            }
+        // Completions per day above the completed list
+        if (baseHeader.equals(completedString))
+        {
+            completionHeatmap.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+            panel.add(completionHeatmap, BorderLayout.NORTH);
+            updateHeatmap();
         }
 
         c.anchor = GridBagConstraints.WEST;
@@ -467,6 +570,39 @@ public class TaskTrackerPanel extends PluginPanel
         c.gridy++;
     }
 
+    // Helper function to update the rows of a list panel, the list model only reports the rows that changed
+    private void updateListPanel(JPanel panel, List<String> contentList, String baseHeader)
+    {
+        TaskListSection section = listSections.get(baseHeader);
+        section.model.setTasks(contentList);
+        showRows(panel, section);
+    }
+
+    // Helper function to update the completed rows, only a changed history is compared row by row
+    private void updateCompletedPanel()
+    {
+        TaskListSection section = listSections.get(completedString);
+        section.model.setCompleted(plugin.getTaskData().getCompleted(), plugin.newestCompletedFirst());
+        showRows(completedListPanel, section);
+    }
+
+    // Helper function to show the list of a section, or its no tasks label when the list is empty
+    private void showRows(JPanel panel, TaskListSection section)
+    {
+        Component content = section.model.getSourceSize() == 0 ? section.emptyLabel : section.list;
+        Component shown = ((BorderLayout) panel.getLayout()).getLayoutComponent(BorderLayout.CENTER);
+        if (shown != content)
+        {
+            if (shown != null)
+            {
+                panel.remove(shown);
+            }
+            panel.add(content, BorderLayout.CENTER);
+            panel.revalidate();
+            panel.repaint();
+        }
+    }
+
     // Helper function used to set up buttons into parent panel
     private void setupAndAddButtons(JPanel parent, GridBagConstraints c, JPanel panel, JButton button, JLabel header, List<String> contentList, String baseHeader)
     {
@@ -530,6 +666,169 @@ public class TaskTrackerPanel extends PluginPanel
         return buttonContainer;
     }
 
+    // Helper function to set up the filter box, the lists are filtered on every keystroke
+    private void setupFilterField()
+    {
+        filterField.setIcon(IconTextField.Icon.SEARCH);
+        filterField.setPreferredSize(new Dimension(PluginPanel.PANEL_WIDTH - 20, 30));
+        filterField.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+        filterField.setHoverBackgroundColor(ColorScheme.DARK_GRAY_HOVER_COLOR);
+        filterField.getDocument().addDocumentListener(new DocumentListener()
+        {
+            @Override
+            public void insertUpdate(DocumentEvent e)
+            {
+                applyFilter();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e)
+            {
+                applyFilter();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e)
+            {
+                applyFilter();
+            }
+        });
+    }
+
+    // Shows only the rows matching the filter box in every list
+    private void applyFilter()
+    {
+        TaskSearchIndex.Matches matches = searchIndex.search(filterField.getText(), filterMatches);
+        // Typing further only removes matches, then only the rows already shown are checked
+        boolean narrowing = matches != null && filterMatches != null && matches.isNarrowerThan(filterMatches);
+        filterMatches = matches;
+
+        for (TaskListSection section : listSections.values())
+        {
+            section.model.setFilter(matches, narrowing);
+            section.hoverIndex = -1;
+        }
+
+        updateHeader(activeHeader, listSections.get(activeString).model.getSourceSize(), activeString);
+        if (backlogShown)
+        {
+            updateHeader(backlogHeader, listSections.get(backlogString).model.getSourceSize(), backlogString);
+        }
+        updateHeader(completedHeader, listSections.get(completedString).model.getSourceSize(), completedString);
+    }
+
+    // Helper function to show the completions of the days on the heatmap, it redraws only the days that changed
+    private void updateHeatmap()
+    {
+        long today = LocalDate.now().toEpochDay();
+        plugin.fillCompletionDayCounts(CompletionHeatmap.firstDayShown(today), heatmapCounts);
+        completionHeatmap.update(today, heatmapCounts, plugin.getMilestoneColor());
+    }
+
+    // Helper function to set up the statistics section, clicking the header opens and closes it
+    private void setupStatsPanel()
+    {
+        statsHeader.setFont(FontManager.getRunescapeBoldFont());
+        statsHeader.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        statsHeader.addMouseListener(new MouseAdapter()
+        {
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                statsExpanded = !statsExpanded;
+                updateStats();
+                revalidate();
+                repaint();
+            }
+        });
+
+        statsPanel.setBorder(compoundBorder);
+        statsPanel.setOpaque(false);
+        for (int i = 0; i < statsLabels.length; i++)
+        {
+            statsLabels[i] = new JLabel();
+            statsLabels[i].setForeground(Color.WHITE);
+            statsPanel.add(statsLabels[i]);
+        }
+    }
+
+    // Helper function to show the current statistics, nothing is computed while the section is closed
+    private void updateStats()
+    {
+        statsHeader.setText((statsExpanded ? "[-] " : "[+] ") + statsString);
+        statsPanel.setVisible(statsExpanded);
+        if (!statsExpanded)
+        {
+            return;
+        }
+
+        CompletionStats.Summary stats = plugin.getCompletionSummary();
+        String milestone;
+        if (stats.getNextMilestone() == 0)
+        {
+            milestone = "Next milestone: off";
+        }
+        else if (Double.isNaN(stats.getMilestoneEtaDays()))
+        {
+            milestone = "Next milestone (" + stats.getNextMilestone() + "): unknown";
+        }
+        else
+        {
+            milestone = "Next milestone (" + stats.getNextMilestone() + "): ~" + formatDays(stats.getMilestoneEtaDays());
+        }
+
+        setStatsText(0, "Completed today: " + stats.getToday());
+        setStatsText(1, "Last 7 days: " + stats.getLastWeek());
+        setStatsText(2, "Last 30 days: " + stats.getLastMonth());
+        setStatsText(3, "Average per day: " + new DecimalFormat("0.##").format(stats.getAveragePerDay()));
+        setStatsText(4, "Current streak: " + formatCount(stats.getCurrentStreak(), "day"));
+        setStatsText(5, "Longest streak: " + formatCount(stats.getLongestStreak(), "day"));
+        setStatsText(6, "Last completion: " + (stats.getLastCompletedAt() < 0 ? "never"
+                : formatElapsed(System.currentTimeMillis() - stats.getLastCompletedAt()) + " ago"));
+        setStatsText(7, milestone);
+    }
+
+    private void setStatsText(int row, String text)
+    {
+        if (!text.equals(statsLabels[row].getText()))
+        {
+            statsLabels[row].setText(text);
+        }
+    }
+
+    // Helper function to show a count with its unit, e.g. "1 day" or "3 days"
+    private static String formatCount(long count, String unit)
+    {
+        return count + " " + unit + (count == 1 ? "" : "s");
+    }
+
+    // Helper function to show a time span in its two largest units, e.g. "2d 5h" or "12m"
+    private static String formatElapsed(long millis)
+    {
+        long minutes = Math.max(0, millis) / 60_000;
+        long hours = minutes / 60;
+        long days = hours / 24;
+        if (days > 0)
+        {
+            return days + "d " + hours % 24 + "h";
+        }
+        if (hours > 0)
+        {
+            return hours + "h " + minutes % 60 + "m";
+        }
+        return minutes + "m";
+    }
+
+    // Helper function to show an estimate in days, or hours when it is less than a day
+    private static String formatDays(double days)
+    {
+        if (days < 1)
+        {
+            return formatCount(Math.max(1, Math.round(days * 24)), "hour");
+        }
+        return formatCount(Math.round(days), "day");
+    }
+
     // Helper function to add all action listeners to buttons
     private void addButtonListeners()
     {
@@ -541,109 +840,249 @@ public class TaskTrackerPanel extends PluginPanel
         completedButton.addActionListener(e -> openEditDialog("Completed Tasks", "completed"));
     }
 
-    // Helper function to add the right click menu to list items within panels
-    private JPopupMenu createPopupMenu(String task, String baseHeader)
+    // A virtualized task list, rows are painted by a single renderer and only when visible
+    private class TaskListSection
     {
-        JPopupMenu menu = new JPopupMenu();
+        private final String baseHeader;
+        private final TaskListModel model = new TaskListModel(searchIndex);
+        private final JList<String> list = new JList<>(model);
+        private final JLabel emptyLabel;
+        private int hoverIndex = -1;
+        // Right click menu shared by every row, built the first time it is opened
+        private JPopupMenu menu;
+        private String menuTask;
+        private JMenuItem currentItem;
+        private JMenuItem backlogItem;
+        private JCheckBoxMenuItem repeatableItem;
+        private JMenuItem weightItem;
+
+        private TaskListSection(String baseHeader)
+        {
+            this.baseHeader = baseHeader;
+
+            emptyLabel = new JLabel("No " + baseHeader);
+            emptyLabel.setForeground(Color.WHITE);
+
+            list.setOpaque(false);
+            list.setCellRenderer(new TaskCellRenderer(this));
+            // A fixed row height means layout never has to measure every row
+            list.setPrototypeCellValue("Task");
+            list.setFixedCellHeight(Math.max(list.getFixedCellHeight(), TaskIconCache.ROW_ICON_SIZE));
+            list.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+            addMouseListeners();
+        }
 
-        // Option 1: Delete specific task
-        JMenuItem deleteItem = new JMenuItem("Delete Task");
-        deleteItem.addActionListener(e -> {
-            plugin.deleteTask(task,baseHeader);
-        });
+        // Helper function to repaint the row of a task if it is shown
+        private void repaintTask(String task)
+        {
+            repaintRow(model.indexOf(task));
+        }
 
-        //Option 2: Move back to Active
-        if (!baseHeader.equals(activeString))
+        private void repaintRow(int index)
         {
-            JMenuItem reactiveItem = new JMenuItem("Move to Active");
-            reactiveItem.addActionListener(e -> {
-                plugin.moveTaskToActive(task,baseHeader);
-            });
-            menu.add(reactiveItem);
+            if (index >= 0 && index < model.getSize())
+            {
+                list.repaint(list.getCellBounds(index, index));
+            }
         }
-        // Option 3: Make current task / backlog task
-        else
+
+        // Helper function to find the row under a point, or -1 if there is none
+        private int rowAt(Point point)
+        {
+            int index = list.locationToIndex(point);
+            if (index >= 0 && list.getCellBounds(index, index).contains(point))
+            {
+                return index;
+            }
+            return -1;
+        }
+
+        private void setHoverIndex(int index)
+        {
+            if (index == hoverIndex)
+            {
+                return;
+            }
+            int previous = hoverIndex;
+            hoverIndex = index;
+            repaintRow(previous);
+            repaintRow(index);
+        }
+
+        // Helper function to add the hover and right click listeners to the list
+        private void addMouseListeners()
+        {
+            MouseAdapter adapter = new MouseAdapter() {
+                @Override
+                public void mouseMoved(MouseEvent e) {
+                    setHoverIndex(rowAt(e.getPoint()));
+                }
+
+                @Override
+                public void mouseExited(MouseEvent e) {
+                    setHoverIndex(-1);
+                }
+
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    if (e.isPopupTrigger()) showMenu(e);
+                }
+
+                @Override
+                public void mouseReleased(MouseEvent e) {
+                    if (e.isPopupTrigger()) showMenu(e);
+                }
+
+                private void showMenu(MouseEvent e) {
+                    int index = rowAt(e.getPoint());
+                    if (index == -1)
+                    {
+                        return;
+                    }
+                    showPopupMenu(model.getElementAt(index), e.getX(), e.getY());
+                }
+            };
+            list.addMouseListener(adapter);
+            list.addMouseMotionListener(adapter);
+        }
+
+        // Helper function to point the shared right click menu at a task and show it
+        private void showPopupMenu(String task, int x, int y)
         {
-            if (!task.equals(plugin.getCurrentTaskAsString()))
+            if (menu == null)
             {
-                JMenuItem makeCurrentItem = new JMenuItem("Make Current Task");
-                makeCurrentItem.addActionListener(e -> {
-                    plugin.makeCurrentTask(task);
+                menu = createPopupMenu();
+            }
+            menuTask = task;
+
+            // Update the options that depend on the task
+            if (baseHeader.equals(activeString))
+            {
+                currentItem.setText(task.equals(plugin.getCurrentTaskAsString()) ? "Reset Current Task" : "Make Current Task");
+                backlogItem.setVisible(plugin.isBacklogEnabled());
+                repeatableItem.setSelected(plugin.isTaskRepeatable(task));
+                weightItem.setText("Roll Weight: " + formatWeight(plugin.getTaskWeight(task)));
+            }
+
+            menu.show(list, x, y);
+        }
+
+        // Helper function to create the right click menu, actions apply to whichever task it was opened on
+        private JPopupMenu createPopupMenu()
+        {
+            JPopupMenu popupMenu = new JPopupMenu();
+
+            // Option 1: Delete specific task
+            JMenuItem deleteItem = new JMenuItem("Delete Task");
+            deleteItem.addActionListener(e -> {
+                plugin.deleteTask(menuTask,baseHeader);
+            });
+
+            //Option 2: Move back to Active
+            if (!baseHeader.equals(activeString))
+            {
+                JMenuItem reactiveItem = new JMenuItem("Move to Active");
+                reactiveItem.addActionListener(e -> {
+                    plugin.moveTaskToActive(menuTask,baseHeader);
                 });
-                menu.add(makeCurrentItem);
+                popupMenu.add(reactiveItem);
             }
+            // Option 3: Make current task / backlog task
             else
             {
-                JMenuItem resetCurrentItem = new JMenuItem("Reset Current Task");
-                resetCurrentItem.addActionListener(e -> {
-                    plugin.makeCurrentTask("");
+                currentItem = new JMenuItem("Make Current Task");
+                currentItem.addActionListener(e -> {
+                    if (menuTask.equals(plugin.getCurrentTaskAsString()))
+                    {
+                        plugin.makeCurrentTask("");
+                    }
+                    else
+                    {
+                        plugin.makeCurrentTask(menuTask);
+                    }
                 });
-                menu.add(resetCurrentItem);
-            }
+                popupMenu.add(currentItem);
 
-            if (plugin.isBacklogEnabled())
-            {
-                JMenuItem backlogItem = new JMenuItem("Backlog Task");
+                backlogItem = new JMenuItem("Backlog Task");
                 backlogItem.addActionListener(e -> {
-                    plugin.backlogTask(task);
+                    plugin.backlogTask(menuTask);
                 });
-                menu.add(backlogItem);
-            }
+                popupMenu.add(backlogItem);
 
-            JCheckBoxMenuItem repeatableItem = new JCheckBoxMenuItem("Repeatable");
-            repeatableItem.setSelected(plugin.isTaskRepeatable(task));
-            repeatableItem.setHorizontalTextPosition(SwingConstants.LEFT);
-            repeatableItem.addActionListener(e -> plugin.toggleRepeatableTask(task));
-            menu.add(repeatableItem);
+                repeatableItem = new JCheckBoxMenuItem("Repeatable");
+                repeatableItem.setHorizontalTextPosition(SwingConstants.LEFT);
+                repeatableItem.addActionListener(e -> plugin.toggleRepeatableTask(menuTask));
+                popupMenu.add(repeatableItem);
 
-        }
+                weightItem = new JMenuItem("Roll Weight");
+                weightItem.addActionListener(e -> editTaskWeight(menuTask));
+                popupMenu.add(weightItem);
 
-        menu.add(deleteItem);
+            }
 
-        return menu;
+            popupMenu.add(deleteItem);
 
+            return popupMenu;
+        }
     }
 
-    // Helper function to add all mouse listeners
-    private void addMouseListeners(JLabel label, JPopupMenu menu, boolean milestone, String task, String baseHeader)
+    // Renders a task row with the index numbering, milestone and current task highlight rules
+    private class TaskCellRenderer implements ListCellRenderer<String>
     {
-        label.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseEntered(MouseEvent e) {
-                label.setCursor(new Cursor(Cursor.HAND_CURSOR));
-                label.setForeground(ColorScheme.BRAND_ORANGE);
-            }
+        private final TaskListSection section;
+        private final JLabel label = new JLabel();
 
-            @Override
-            public void mouseExited(MouseEvent e) {
-                if (milestone)
-                {
-                    label.setForeground(plugin.getMilestoneColor());
-                }
-                if (baseHeader.equals(activeString) && task.equals(plugin.getCurrentTaskAsString()))
+        private TaskCellRenderer(TaskListSection section)
+        {
+            this.section = section;
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends String> list, String task, int index, boolean isSelected, boolean cellHasFocus)
+        {
+            String text = "• " + task;
+            Color color = Color.WHITE;
+
+            if (section.baseHeader.equals(completedString))
+            {
+                // Filtered rows keep the number they have in the whole list
+                int sourceIndex = section.model.getSourceIndex(index);
+                int number = plugin.newestCompletedFirst() ? section.model.getSourceSize() - sourceIndex : sourceIndex + 1;
+                if (plugin.getShowIndex())
                 {
-                    label.setForeground(plugin.getCurrentTaskHighlightColor());
+                    text = number + ". " + task;
                 }
-                else
+                int milestoneInterval = plugin.getMilestoneInterval();
+                if (milestoneInterval != 0 && number % milestoneInterval == 0)
                 {
-                    label.setForeground(Color.WHITE);
+                    color = plugin.getMilestoneColor();
                 }
             }
-
-            @Override
-            public void mousePressed(MouseEvent e) {
-                if (e.isPopupTrigger()) showMenu(e);
+            else if (section.baseHeader.equals(activeString) && task.equals(plugin.getCurrentTaskAsString()))
+            {
+                color = plugin.getCurrentTaskHighlightColor();
             }
 
-            @Override
-            public void mouseReleased(MouseEvent e) {
-                if (e.isPopupTrigger()) showMenu(e);
+            if (index == section.hoverIndex)
+            {
+                color = ColorScheme.BRAND_ORANGE;
             }
 
-            private void showMenu(MouseEvent e) {
-                menu.show(e.getComponent(), e.getX(), e.getY());
+            label.setText(text);
+            label.setForeground(color);
+            label.setToolTipText(task);
+
+            // Active and backlog rows show the icon of their category
+            if (section.baseHeader.equals(completedString))
+            {
+                label.setIcon(null);
             }
-        });
+            else
+            {
+                label.setIcon(iconCache.getRowIcon(TaskChecker.classify(task)));
+            }
+            return label;
+        }
     }
 
 }
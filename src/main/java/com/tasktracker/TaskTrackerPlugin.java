@@ -1,15 +1,16 @@
 package com.tasktracker;
 
-import com.google.gson.Gson;
 import com.google.inject.Provides;
 import javax.inject.Inject;
 import javax.swing.SwingUtilities;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.client.RuneLite;
 import net.runelite.client.audio.AudioPlayer;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.events.ProfileChanged;
 import net.runelite.client.game.SpriteManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
@@ -18,18 +19,14 @@ import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.util.ImageUtil;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.io.InputStream;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.File;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 @Slf4j
 @PluginDescriptor(
@@ -52,22 +49,49 @@ public class TaskTrackerPlugin extends Plugin
     @Inject
     private SpriteManager spriteManager;
 
-    @Inject
-    private Gson gson;
-
     @Inject
     private AudioPlayer audioPlayer;
 
     private TaskTrackerPanel panel;
     private NavigationButton navButton;
-
-    private final ExecutorService audioExecutor = Executors.newSingleThreadExecutor();
+    private TaskDataPersister<Map<String, String>> persister;
+    private TaskJournal journal;
+    private TaskDataShards shards;
+
+    // In-memory task data, loaded once from config and kept in sync with it
+    private volatile TaskTrackerData taskData = new TaskTrackerData();
+    // False while the completed history is loaded in the background, changes are queued until then
+    private volatile boolean taskDataLoaded;
+    // Changes made while the completed history was loading, applied in order once it has
+    private final List<Runnable> pendingOperations = new ArrayList<>();
+    // Alias table for weighted rolls, rebuilt when the active tasks or weights change
+    private TaskRollSampler rollSampler;
+    // Bumped whenever a task or category weight changes
+    private int rollWeightsVersion;
+    // Source of every roll, replaced with a seeded one to make rolls repeatable
+    private SplittableRandom rollRandom = new SplittableRandom();
+    // Bumped by every load, a snapshot of data that has since been replaced is not written
+    private volatile int loadGeneration;
+    // Journal sequence and load generation of the snapshot being written by the persister
+    private volatile long snapshotSequence;
+    private volatile int snapshotGeneration;
+    private volatile TimestampFormatter timestampFormatter;
+    private final CompletionStats completionStats = new CompletionStats(ZoneId.systemDefault());
+
+    // Created in startUp and released in shutDown, null while the plugin is stopped
+    private volatile TaskSoundPlayer soundPlayer;
 
 	@Override
 	protected void startUp() throws Exception
 	{
 		log.debug("Task Tracker started!");
 
+        journal = new TaskJournal(new File(RuneLite.RUNELITE_DIR, "task-tracker"));
+        shards = new TaskDataShards(configManager);
+        persister = new TaskDataPersister<>(this::serializeTaskData, this::writeTaskData, config::saveDelay);
+        reloadTaskData();
+        soundPlayer = new TaskSoundPlayer(audioPlayer, "dice.wav", "equip.wav", "coins.wav");
+
         BufferedImage icon = ImageUtil.loadImageResource(getClass(), "img/icon.png");
 
         SwingUtilities.invokeLater( () -> {
@@ -88,8 +112,11 @@ public class TaskTrackerPlugin extends Plugin
 	@Override
 	protected void shutDown() throws Exception
 	{
+        persister.shutDown();
+        journal.close();
         clientToolbar.removeNavigation(navButton);
-        audioExecutor.shutdown();
+        soundPlayer.shutDown();
+        soundPlayer = null;
 		log.debug("Task Tracker stopped!");
 	}
 
@@ -97,7 +124,51 @@ public class TaskTrackerPlugin extends Plugin
     public void onConfigChanged(ConfigChanged event)
     {
         // Check if the change belongs to your plugin group
-        if (event.getGroup().equals("tasktracker"))
+        if (event.getGroup().equals(TaskDataShards.GROUP))
+        {
+            if (TaskDataShards.isShardKey(event.getKey()))
+            {
+                // Our own writes are already shown in the panel
+                if (shards.isSavedValue(event.getKey(), event.getNewValue()))
+                {
+                    return;
+                }
+                // Only re-parse when the data was changed outside the plugin (e.g. config reset)
+                reloadTaskData();
+            }
+            else if (event.getKey().equals(TaskDataShards.LEGACY_KEY))
+            {
+                // Only read once to migrate to the sharded keys
+                return;
+            }
+            else if (event.getKey().endsWith("Weight"))
+            {
+                invalidateRollWeights();
+                return;
+            }
+            else if (event.getKey().equals("compactStorage"))
+            {
+                // Rewrite the saved data in the newly selected format
+                shards.markAllDirty();
+                persister.markDirty();
+                return;
+            }
+            else if (event.getKey().equals("timestampFormat"))
+            {
+                timestampFormatter = null;
+            }
+            panel.refresh();
+        }
+    }
+
+    @Subscribe
+    public void onProfileChanged(ProfileChanged event)
+    {
+        // Config already belongs to the new profile, so the previous profile's unsaved changes can't be written to it
+        // Every change is in that profile's journal file and is replayed when it is loaded again
+        // A pending write is kept, it saves the new profile's data once it is loaded
+        reloadTaskData();
+        if (panel != null)
         {
             panel.refresh();
         }
@@ -109,78 +180,254 @@ public class TaskTrackerPlugin extends Plugin
 		return configManager.getConfig(TaskTrackerConfig.class);
 	}
 
-    // Get task data from config
+    // Get the in-memory task data
     public TaskTrackerData getTaskData()
     {
-        String json = configManager.getConfiguration("tasktracker","allTasksJson");
-        if (json == null || json.isEmpty())
+        return taskData;
+    }
+
+    // Load the task data snapshot from config into memory, the small lists right away and the completed history after
+    private synchronized void reloadTaskData()
+    {
+        loadGeneration++;
+        dropPendingOperations();
+        TaskTrackerData data;
+        try
+        {
+            data = shards.loadHot();
+        }
+        catch (RuntimeException e)
+        {
+            // A damaged manifest or one written by a newer version, it is left as it is and not saved over
+            log.error("Could not read the saved task data, loading the single key data instead", e);
+            finishLoading(shards.loadFallback());
+            return;
+        }
+        if (data == null)
+        {
+            // Nothing saved in separate keys yet, migrate the single key data (or start fresh) and save it right away
+            finishLoading(shards.loadLegacy());
+            persister.saveNow();
+            return;
+        }
+
+        taskData = data;
+        taskDataLoaded = false;
+        TaskTrackerData loading = data;
+        persister.execute(() -> loadHistory(loading));
+    }
+
+    // Load the completed history shards, called from the persister thread
+    private void loadHistory(TaskTrackerData data)
+    {
+        CompletedTaskHistory completed = shards.loadHistory();
+        synchronized (this)
+        {
+            // The data was reloaded again in the meantime
+            if (taskData != data)
+            {
+                return;
+            }
+            data.setCompleted(completed);
+            finishLoading(data);
+        }
+        SwingUtilities.invokeLater(() ->
+        {
+            if (panel != null)
+            {
+                panel.refresh();
+            }
+        });
+    }
+
+    // Replay the journal on top of fully loaded task data and allow changes again
+    private synchronized void finishLoading(TaskTrackerData data)
+    {
+        boolean newJournal = data.getJournalEpoch() == 0;
+        data.getRollBag().sync(data.getActive());
+        int replayed = journal.open(data);
+        taskData = data;
+        taskDataLoaded = true;
+
+        if (newJournal)
         {
-            return new TaskTrackerData();
+            // The journal is only replayed onto a snapshot with the same epoch, so that has to be saved first
+            persister.saveNow();
+        }
+        else
+        {
+            if (replayed > 0)
+            {
+                log.debug("Replayed {} task journal operations", replayed);
+                shards.markAllDirty();
+            }
+            // Save anything that was skipped while loading
+            persister.markDirty();
+        }
+
+        if (!pendingOperations.isEmpty())
+        {
+            // Applying a change refreshes the panel, so they are applied on the Swing thread like the clicks they came from
+            List<Runnable> pending = new ArrayList<>(pendingOperations);
+            pendingOperations.clear();
+            SwingUtilities.invokeLater(() -> applyPendingOperations(data, pending));
         }
-        return gson.fromJson(json, TaskTrackerData.class);
     }
 
-    // Save task data to config
+    // Helper function to apply the changes queued while the data was loading, unless it was replaced in the meantime
+    private synchronized void applyPendingOperations(TaskTrackerData data, List<Runnable> pending)
+    {
+        if (taskData != data)
+        {
+            log.warn("Dropping {} task changes made while the previous task data was loading", pending.size());
+            return;
+        }
+        pending.forEach(Runnable::run);
+    }
+
+    // Helper function to forget changes queued for data that was replaced before it finished loading
+    private void dropPendingOperations()
+    {
+        if (!pendingOperations.isEmpty())
+        {
+            log.warn("Dropping {} task changes made while the previous task data was loading", pendingOperations.size());
+            pendingOperations.clear();
+        }
+    }
+
+    // Schedule a snapshot of the task data to be saved to config, the lists are already kept in sorted order
     private void saveTaskData(TaskTrackerData data)
     {
-        Comparator<String> naturalOrder = createNaturalOrderComparator();
+        persister.markDirty();
+        panel.refresh();
+    }
+
+    // Apply a change to the task data and record it in the journal, so it is kept even if the snapshot is never saved
+    private void applyOperation(TaskTrackerData data, TaskOperation operation, String... args)
+    {
+        if (!taskDataLoaded)
+        {
+            log.debug("Applying {} once task data has loaded", operation);
+            pendingOperations.add(() -> applyOperation(data, operation, args));
+            return;
+        }
+        shards.markDirty(data, operation, args);
+        int completedBefore = data.getCompleted().size();
+        operation.apply(data, args);
+        if (operation == TaskOperation.COMPLETE && data.getCompleted().size() > completedBefore)
+        {
+            completionStats.added(data.getCompleted(), Long.parseLong(args[0]));
+        }
+        journal.append(data, operation, args);
+        saveTaskData(data);
+    }
 
-        // Sort Active Tasks
-        if (data.getActive() != null)
+    // Serialize the in-memory task data, called from the persister thread
+    private synchronized Map<String, String> serializeTaskData()
+    {
+        // Saving before the completed history is loaded would drop its months from the manifest
+        if (!taskDataLoaded)
         {
-            data.getActive().sort(naturalOrder);
+            return Collections.emptyMap();
         }
-        // Sort Backlog Tasks
-        if (data.getBacklog() != null)
+        snapshotSequence = taskData.getJournalSequence();
+        snapshotGeneration = loadGeneration;
+        return shards.serialize(taskData, config.compactStorage());
+    }
+
+    // Write the changed config keys, called from the persister thread
+    private void writeTaskData(Map<String, String> changes)
+    {
+        if (changes.isEmpty())
         {
-            data.getBacklog().sort(naturalOrder);
+            return;
         }
-        // Sort Completed Tasks
-        if (data.getCompleted() != null)
+        int generation = snapshotGeneration;
+        synchronized (this)
         {
-            if (newestCompletedFirst())
+            // The data was reloaded, e.g. for another profile, since it was serialized, its journal keeps the changes
+            if (generation != loadGeneration)
             {
-                data.getCompleted().sort(Comparator.comparing(CompletedTask::getCompletedAt).reversed());
+                log.debug("Skipping a task data write for data that was replaced");
+                return;
             }
-            else
+            shards.saved(changes);
+        }
+        try
+        {
+            for (Map.Entry<String, String> change : changes.entrySet())
             {
-                data.getCompleted().sort(Comparator.comparing(CompletedTask::getCompletedAt));
+                if (generation != loadGeneration)
+                {
+                    log.debug("Stopping a task data write for data that was replaced");
+                    return;
+                }
+                if (change.getValue() == null)
+                {
+                    configManager.unsetConfiguration(TaskDataShards.GROUP, change.getKey());
+                }
+                else
+                {
+                    configManager.setConfiguration(TaskDataShards.GROUP, change.getKey(), change.getValue());
+                }
             }
         }
+        catch (RuntimeException e)
+        {
+            // Some keys may not have been written, compare every shard again on the retry
+            shards.markAllDirty();
+            throw e;
+        }
+        // Operations in the snapshot no longer need replaying
+        journal.compact(snapshotSequence);
+    }
 
-        String json = gson.toJson(data);
-        configManager.setConfiguration("tasktracker","allTasksJson",json);
+    // Helper function to replace the source of rolls, used by tests to roll with a fixed seed
+    synchronized void setRollRandom(SplittableRandom rollRandom)
+    {
+        this.rollRandom = rollRandom;
     }
 
     // Button function roll a unique task, rerolling the same task is impossible
-    public void rollTask()
+    public synchronized void rollTask()
     {
         log.info("Rolling Task");
         TaskTrackerData data = getTaskData();
 
-        // Make sure we don't reroll the same task
-        List<String> rollableTasks = new ArrayList<>(data.getActive());
-        if (rollableTasks.contains(data.getCurrentTask()))
+        if (config.rollMode() == TaskTrackerConfig.RollMode.SHUFFLE_BAG)
         {
-            rollableTasks.remove(data.getCurrentTask());
+            // Draw from the tasks not rolled yet this round
+            String newCurrentTask = data.getRollBag().pick(rollRandom, data.getCurrentTask());
+            if (newCurrentTask == null)
+            {
+                return;
+            }
+
+            playSound("dice.wav");
+            applyOperation(data, TaskOperation.DRAW, newCurrentTask);
+            return;
         }
-        // Make sure we have a task to roll
-        if (rollableTasks.isEmpty())
+
+        SortedTaskList activeTasks = data.getActive();
+
+        if (rollSampler == null || !rollSampler.isValidFor(activeTasks, rollWeightsVersion))
+        {
+            rollSampler = new TaskRollSampler(activeTasks, rollWeightsVersion, task -> getRollWeight(data, task));
+        }
+        // Make sure we don't reroll the same task, and that we have a task to roll
+        String newCurrentTask = rollSampler.sample(rollRandom, activeTasks.indexOf(data.getCurrentTask()));
+        if (newCurrentTask == null)
         {
             return;
         }
 
         playSound("dice.wav");
 
-        Random random = new Random();
-        String newCurrentTask = rollableTasks.get(random.nextInt(rollableTasks.size()));
-
-        data.setCurrentTask(newCurrentTask);
-        saveTaskData(data);
+        applyOperation(data, TaskOperation.SET_CURRENT, newCurrentTask);
     }
 
     // Button function backlog or complete a task based on key
-    public void backlogCompleteTask(String key)
+    public synchronized void backlogCompleteTask(String key)
     {
         log.debug("Backlog Complete Task Button Clicked");
         TaskTrackerData data = getTaskData();
@@ -202,236 +449,157 @@ public class TaskTrackerPlugin extends Plugin
         if (key.equals("backlog"))
         {
             playSound("equip.wav");
-            data.getBacklog().add(currentTask);
-            data.getActive().remove(currentTask);
+            applyOperation(data, TaskOperation.BACKLOG, currentTask, "true");
         }
         else if (key.equals("complete"))
         {
             playSound("coins.wav");
-            data.getCompleted().add(new CompletedTask(currentTask));
-            if (removeFromActive() && !isTaskRepeatable(currentTask))
-            {
-                data.getActive().remove(currentTask);
-            }
+            boolean remove = removeFromActive() && !isTaskRepeatable(currentTask);
+            applyOperation(data, TaskOperation.COMPLETE,
+                    String.valueOf(System.currentTimeMillis()), currentTask, String.valueOf(remove));
         }
-
-        data.setCurrentTask("");
-        saveTaskData(data);
     }
 
     // Menu function for right click delete task
-    public void deleteTask(String task, String section)
+    public synchronized void deleteTask(String task, String section)
     {
-        TaskTrackerData data = getTaskData();
-
-        switch(section)
-        {
-            case TaskTrackerPanel.activeString:
-                data.getActive().remove(task);
-                break;
-            case TaskTrackerPanel.backlogString:
-                data.getBacklog().remove(task);
-                break;
-            case TaskTrackerPanel.completedString:
-                data.getCompleted().removeIf(t -> t.getTask().equals(task));
-                break;
-            default:
-                break;
-        }
-
-        saveTaskData(data);
+        applyOperation(getTaskData(), TaskOperation.DELETE, section, task);
     }
 
     // Menu function for right click move task to active
-    public void moveTaskToActive(String task, String section)
+    public synchronized void moveTaskToActive(String task, String section)
     {
-        TaskTrackerData data = getTaskData();
-
-        switch(section)
-        {
-            case TaskTrackerPanel.backlogString:
-                if (!data.getActive().contains(task))
-                {
-                    data.getActive().add(task);
-                }
-                data.getBacklog().remove(task);
-                break;
-            case TaskTrackerPanel.completedString:
-                if (!data.getActive().contains(task))
-                {
-                    data.getActive().add(task);
-                }
-                data.getCompleted().removeIf(t -> t.getTask().equals(task));
-                break;
-            default:
-                break;
-        }
-
-        saveTaskData(data);
+        applyOperation(getTaskData(), TaskOperation.MOVE_TO_ACTIVE, section, task);
     }
 
     // Menu function for right click make current task
-    public void makeCurrentTask(String task)
+    public synchronized void makeCurrentTask(String task)
     {
-        TaskTrackerData data = getTaskData();
-
-        data.setCurrentTask(task);
-
-        saveTaskData(data);
+        applyOperation(getTaskData(), TaskOperation.SET_CURRENT, task);
     }
 
     // Menu function for right click backlog task
-    public void backlogTask(String task)
+    public synchronized void backlogTask(String task)
     {
-        TaskTrackerData data = getTaskData();
-
         playSound("equip.wav");
-        data.getBacklog().add(task);
-        data.getActive().remove(task);
+        applyOperation(getTaskData(), TaskOperation.BACKLOG, task, "false");
+    }
 
-        saveTaskData(data);
+    // Menu function to set the roll weight of a task
+    public synchronized void setTaskWeight(String task, double weight)
+    {
+        applyOperation(getTaskData(), TaskOperation.SET_WEIGHT, task, String.valueOf(weight));
+        rollWeightsVersion++;
     }
 
-    // Menu function to toggle repeatable tasks
-    public void toggleRepeatableTask(String task)
+    // Helper function to make the next roll rebuild its weights
+    private synchronized void invalidateRollWeights()
     {
-        TaskTrackerData data = getTaskData();
-        Set<String> repeatableTasks = data.getRepeatableTasks();
-        if (repeatableTasks.contains(task))
-        {
-            repeatableTasks.remove(task);
-        }
-        else
+        rollWeightsVersion++;
+    }
+
+    // Helper function to get the roll weight of a task, its own weight times the weight of its category
+    private double getRollWeight(TaskTrackerData data, String task)
+    {
+        return data.getTaskWeight(task) * getCategoryWeight(TaskChecker.classify(task));
+    }
+
+    // Helper function to get the configured roll weight of a category
+    private double getCategoryWeight(TaskCategory category)
+    {
+        switch (category)
         {
-            repeatableTasks.add(task);
+            case QUEST:
+                return config.questWeight();
+            case COMBAT:
+                return config.combatWeight();
+            case STATS:
+                return config.statsWeight();
+            case EQUIPMENT:
+                return config.equipmentWeight();
+            case DIARY:
+                return config.diaryWeight();
+            case GE:
+                return config.geWeight();
+            default:
+                return config.otherWeight();
         }
+    }
 
-        saveTaskData(data);
+    // Helper function to get the weight set on a task
+    public double getTaskWeight(String task)
+    {
+        return getTaskData().getTaskWeight(task);
+    }
+
+    // Menu function to toggle repeatable tasks
+    public synchronized void toggleRepeatableTask(String task)
+    {
+        applyOperation(getTaskData(), TaskOperation.SET_REPEATABLE, task, String.valueOf(!isTaskRepeatable(task)));
     }
 
-    // Function to play custom sounds from resources folder
+    // Function to play custom sounds from resources folder, they were loaded at startUp
     public void playSound(String soundFile)
     {
         // Check config
-        if (!config.enableSfx())
+        TaskSoundPlayer player = soundPlayer;
+        if (!config.enableSfx() || player == null)
         {
             return;
         }
 
-        audioExecutor.submit( () ->
-        {
-            String path = "/com/tasktracker/audio/" + soundFile;
-            // Load the file from resources
-            try (InputStream stream = getClass().getResourceAsStream(path))
-            {
-                if (stream == null)
-                {
-                    log.warn("Sound file not found :{}",path);
-                    return;
-                }
-
-                audioPlayer.play(stream, 0);
-
-            }
-            catch (Exception e)
-            {
-                log.error("Failed to play sound: " + soundFile, e);
-            }
-        });
+        player.play(soundFile);
     }
 
     // Helper function to update inner TaskData Lists from text
-    public boolean updateListFromText(TaskTrackerData data, String key, String text)
+    public synchronized boolean updateListFromText(TaskTrackerData data, String key, String text)
     {
-        // HashSet for active and backlogged tasks
-        Set<String> uniqueTasks = new HashSet<>();
-        // List for completed tasks
-        List<CompletedTask> newCompletedTasks = new  ArrayList<>();
-        // Date format from configuration
-        SimpleDateFormat dateFormat = getDateTimeFormat();
-
-        // Don't allow "rolling over" invalid dates (e.g., 32nd of Jan -> 1st Feb)
-        if (dateFormat != null)
+        if (!taskDataLoaded)
         {
-            dateFormat.setLenient(false);
+            panel.showError("Task data is still loading, try again in a moment.");
+            return false;
         }
 
-        // Split textArea by lines and initiate lineNumber
-        String [] lines = text.split("\n");
-        int lineNumber = 0;
-
-        for (String line : lines)
+        // Nothing is changed unless every line is valid, then only the lines that differ are applied
+        boolean changed = false;
+        switch (key)
         {
-            lineNumber++;
-            // Skip empty lines
-            if (line.isEmpty())
-            {
-                continue;
-            }
-            // Completed Task Logic
-            if (key.equals("completed"))
-            {
-                // If no format is selected just create task with current time (This should not happen)
-                if (dateFormat == null)
+            case "active":
+                if (TaskListDiff.applyTasks(data.getActive(), TaskImporter.parseTasks(text), data::removeActive, data::addActive))
                 {
-                    newCompletedTasks.add(new CompletedTask(line.trim()));
-                    continue;
+                    shards.markDirty(TaskDataShards.ACTIVE_KEY);
+                    shards.markDirty(TaskDataShards.BAG_KEY);
+                    changed = true;
                 }
-
-                // Split string, limit=2 ensures if the task name has a hyphen it doesn't break
-                String[] split = line.split(" - ",2);
-
-                // Validate split and text format
-                if (split.length < 2)
-                {
-                    panel.showError("Format Error on Line " + lineNumber + ":\n" +
-                            "Missing separator ' - '\n" +
-                            "Expected: [Date] - [Task Name]\n" +
-                            "Found: " + line);
-                    return false;
-                }
-
-                String datePart = split[0].trim();
-                String taskPart = split[1].trim();
-
-                // Validate date
-                try
+                break;
+            case "backlog":
+                SortedTaskList backlog = data.getBacklog();
+                if (TaskListDiff.applyTasks(backlog, TaskImporter.parseTasks(text), backlog::remove, backlog::add))
                 {
-                    Date date = dateFormat.parse(datePart);
-                    newCompletedTasks.add(new CompletedTask(date.getTime(), taskPart));
+                    shards.markDirty(TaskDataShards.BACKLOG_KEY);
+                    changed = true;
                 }
-                catch (ParseException e)
+                break;
+            case "completed":
+                ZoneId zone = ZoneId.systemDefault();
+                TaskImporter.CompletedImport result = TaskImporter.parseCompleted(
+                        text, getTimestampParser(), getTimestampFormat(), zone);
+                if (result.hasErrors())
                 {
-                    panel.showError("Date Error on Line " + lineNumber + ":\n" +
-                            "Invalid date format: '" + datePart + "'\n" +
-                            "Expected format: " + getTimestampFormat());
+                    panel.showError(result.getErrorReport());
                     return false;
                 }
-            }
-            // Active and Backlog Task Logic
-            else
-            {
-                uniqueTasks.add(line.trim());
-            }
+                // Only the months holding removed or added entries are saved again
+                changed = TaskListDiff.applyCompleted(data.getCompleted(), result.getCompleted(), zone, shards::markCompletedDirty);
+                break;
         }
 
-        // List for active and backlog tasks
-        List<String> newList = new ArrayList<>(uniqueTasks);
-
-        switch (key)
+        if (changed)
         {
-            case "active":
-                data.setActive(newList);
-                break;
-            case "backlog":
-                data.setBacklog(newList);
-                break;
-            case "completed":
-                data.setCompleted(newCompletedTasks);
-                break;
+            // Whole list edits are not journaled, save a snapshot right away instead
+            persister.saveNow();
+            panel.refresh();
         }
-
-        saveTaskData(data);
         return true;
     }
 
@@ -441,22 +609,27 @@ public class TaskTrackerPlugin extends Plugin
         return getTaskData().getRepeatableTasks().contains(task);
     }
 
-    // Helper function to get the completed task list in the List<String> format
+    // Helper function to get the completed task names in display order, a view of the history rather than a copy
     public List<String> getCompletedTaskList()
     {
-        TaskTrackerData data = getTaskData();
-        List<CompletedTask> completed = new ArrayList<>(data.getCompleted());
-        List<String> list = new ArrayList<>();
+        return TaskListModel.completedRows(getTaskData().getCompleted(), newestCompletedFirst());
+    }
 
-        if (completed != null)
+    // Helper function to get the completed tasks in display order, only the direction depends on the sort style
+    public List<CompletedTask> getCompletedTasks()
+    {
+        List<CompletedTask> completed = getTaskData().getCompleted();
+        if (!newestCompletedFirst())
         {
-            for (CompletedTask task : completed)
-            {
-                list.add(task.getTask());
-            }
+            return completed;
         }
 
-        return list;
+        List<CompletedTask> reversed = new ArrayList<>(completed.size());
+        for (int i = completed.size() - 1; i >= 0; i--)
+        {
+            reversed.add(completed.get(i));
+        }
+        return reversed;
     }
 
     // Helper function to get the current task as a string even if config is null
@@ -469,41 +642,6 @@ public class TaskTrackerPlugin extends Plugin
 
     }
 
-    // Helper function to create the Comparator<String> for comparing numbers naturally
-    private Comparator<String> createNaturalOrderComparator()
-    {
-        return (s1, s2) ->
-        {
-            // Extract leading numbers from both strings
-            Integer n1 = extractLeadingNumber(s1);
-            Integer n2 = extractLeadingNumber(s2);
-
-            // If both have numbers, compare the numbers numerically
-            if (n1 != null && n2 != null) {
-                int numCompare = n1.compareTo(n2);
-                if (numCompare != 0) return numCompare;
-            }
-
-            // If numbers are equal or one doesn't have a number, fallback to alphabetical
-            return s1.compareToIgnoreCase(s2);
-        };
-    }
-
-    // Helper function to grab the number at the start of the string
-    private Integer extractLeadingNumber(String s) {
-        try {
-            String[] parts = s.split("\\s+"); // Split by space
-            if (parts.length > 0) {
-                // Remove any non-digit characters (like ':' or letters) from the first part
-                String numStr = parts[0].replaceAll("\\D", "");
-                return numStr.isEmpty() ? null : Integer.parseInt(numStr);
-            }
-        } catch (NumberFormatException e) {
-            return null;
-        }
-        return null;
-    }
-
     // Helper function to see if backlog is enabled
     public boolean isBacklogEnabled()
     {
@@ -522,10 +660,22 @@ public class TaskTrackerPlugin extends Plugin
         return config.currentTaskHighlightColor();
     }
 
-    // Helper function to get the current dateTimeFormat
-    public SimpleDateFormat getDateTimeFormat()
+    // Helper function to get the formatter for the current timestamp format, only rebuilt when the format changes
+    public TimestampFormatter getTimestampFormatter()
+    {
+        TimestampFormatter formatter = timestampFormatter;
+        if (formatter == null || formatter.getFormat() != config.timestampFormat())
+        {
+            formatter = new TimestampFormatter(config.timestampFormat(), ZoneId.systemDefault());
+            timestampFormatter = formatter;
+        }
+        return formatter;
+    }
+
+    // Helper function to get a strict parser for the current timestamp format
+    public DateTimeFormatter getTimestampParser()
     {
-        return new SimpleDateFormat(config.timestampFormat().getPattern());
+        return TimestampFormatter.parserFor(config.timestampFormat());
     }
 
     // Helper function to get the current timestamp format as a string
@@ -534,6 +684,18 @@ public class TaskTrackerPlugin extends Plugin
         return config.timestampFormat().getPattern();
     }
 
+    // Helper function to get the completion statistics as of now
+    public CompletionStats.Summary getCompletionSummary()
+    {
+        return completionStats.summarize(getTaskData().getCompleted(), System.currentTimeMillis(), config.milestoneInterval());
+    }
+
+    // Helper function to fill in the completions on each local day from an epoch day onwards, from the statistics counts
+    public void fillCompletionDayCounts(long fromDay, int[] counts)
+    {
+        completionStats.fillDayCounts(getTaskData().getCompleted(), fromDay, counts);
+    }
+
     // Helper function to determine sort order for completed tasks
     public boolean newestCompletedFirst()
     {
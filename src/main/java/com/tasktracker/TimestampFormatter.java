@@ -0,0 +1,69 @@
+package com.tasktracker;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Formats completion times in one of the TimestampFormat patterns
+// The patterns stop at minutes, so each formatted minute is kept in a small direct mapped cache, many completions
+// share a minute and most lookups never reach the formatter
+// Not thread safe, one instance is used from the Swing thread and replaced when the timestamp format changes
+public class TimestampFormatter
+{
+    private static final long MINUTE_MILLIS = 60_000L;
+    // Power of two so the slot is a mask of the minute
+    private static final int CACHE_SIZE = 4096;
+
+    // DateTimeFormatters are immutable, so they are built once per format and shared
+    private static final Map<TaskTrackerConfig.TimestampFormat, DateTimeFormatter> FORMATTERS =
+            new EnumMap<>(TaskTrackerConfig.TimestampFormat.class);
+    private static final Map<TaskTrackerConfig.TimestampFormat, DateTimeFormatter> PARSERS =
+            new EnumMap<>(TaskTrackerConfig.TimestampFormat.class);
+
+    static
+    {
+        for (TaskTrackerConfig.TimestampFormat format : TaskTrackerConfig.TimestampFormat.values())
+        {
+            FORMATTERS.put(format, DateTimeFormatter.ofPattern(format.getPattern()));
+            PARSERS.put(format, TaskImporter.parserFor(format.getPattern()));
+        }
+    }
+
+    private final TaskTrackerConfig.TimestampFormat format;
+    private final DateTimeFormatter formatter;
+    private final long[] cachedMinutes = new long[CACHE_SIZE];
+    private final String[] cachedText = new String[CACHE_SIZE];
+
+    public TimestampFormatter(TaskTrackerConfig.TimestampFormat format, ZoneId zone)
+    {
+        this.format = format;
+        this.formatter = FORMATTERS.get(format).withZone(zone);
+    }
+
+    // Helper function to get the shared strict parser for a timestamp format
+    public static DateTimeFormatter parserFor(TaskTrackerConfig.TimestampFormat format)
+    {
+        return PARSERS.get(format);
+    }
+
+    public TaskTrackerConfig.TimestampFormat getFormat()
+    {
+        return format;
+    }
+
+    public String format(long completedAt)
+    {
+        long minute = Math.floorDiv(completedAt, MINUTE_MILLIS);
+        int slot = (int) (minute ^ (minute >>> 32)) & (CACHE_SIZE - 1);
+        String text = cachedText[slot];
+        if (text == null || cachedMinutes[slot] != minute)
+        {
+            text = formatter.format(Instant.ofEpochMilli(minute * MINUTE_MILLIS));
+            cachedMinutes[slot] = minute;
+            cachedText[slot] = text;
+        }
+        return text;
+    }
+}
@@ -0,0 +1,186 @@
+package com.tasktracker;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompletedTaskHistoryTest
+{
+    @Test
+    public void insertKeepsTimeOrderAndAddOrderForEqualTimes()
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        history.insert(new CompletedTask(300, "c"));
+        history.insert(new CompletedTask(100, "a"));
+        history.insert(new CompletedTask(200, "b1"));
+        history.insert(new CompletedTask(200, "b2"));
+        history.insert(new CompletedTask(400, "d"));
+
+        assertEquals(Arrays.asList(
+                new CompletedTask(100, "a"),
+                new CompletedTask(200, "b1"),
+                new CompletedTask(200, "b2"),
+                new CompletedTask(300, "c"),
+                new CompletedTask(400, "d")), history);
+        assertEquals(200, history.getCompletedAt(2));
+        assertEquals("b2", history.getTask(2));
+    }
+
+    @Test
+    public void addAndRemoveByIndexShiftEntries()
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        for (int i = 0; i < 40; i++)
+        {
+            history.add(new CompletedTask(i, "task " + i % 7));
+        }
+        history.add(0, new CompletedTask(-1, "first"));
+        assertEquals(new CompletedTask(-1, "first"), history.remove(0));
+        assertEquals(new CompletedTask(5, "task 5"), history.remove(5));
+
+        assertEquals(39, history.size());
+        assertEquals(new CompletedTask(4, "task 4"), history.get(4));
+        assertEquals(new CompletedTask(6, "task 6"), history.get(5));
+        assertEquals(new CompletedTask(39, "task 4"), history.get(38));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getPastTheEndThrows()
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        history.add(new CompletedTask(1, "a"));
+        history.get(1);
+    }
+
+    @Test
+    public void removeTaskDropsEveryEntryAndTheName()
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        history.add(new CompletedTask(1, "a"));
+        history.add(new CompletedTask(2, "b"));
+        history.add(new CompletedTask(3, "a"));
+        history.add(new CompletedTask(4, "c"));
+
+        assertTrue(history.removeTask("a"));
+        assertFalse(history.removeTask("a"));
+        assertEquals(Arrays.asList(new CompletedTask(2, "b"), new CompletedTask(4, "c")), history);
+        assertEquals(2, history.nameCount());
+        assertFalse(history.contains(1, "a"));
+    }
+
+    @Test
+    public void retainEntriesKeepsOrderAndDropsUnusedNames()
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        history.add(new CompletedTask(1, "a"));
+        history.add(new CompletedTask(2, "b"));
+        history.add(new CompletedTask(3, "c"));
+        history.add(new CompletedTask(4, "b"));
+
+        history.retainEntries(new boolean[]{false, true, false, true});
+        assertEquals(Arrays.asList(new CompletedTask(2, "b"), new CompletedTask(4, "b")), history);
+        assertEquals(1, history.nameCount());
+    }
+
+    @Test
+    public void namesAreReclaimedAndTheirIdsReused()
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        // A long lived history of one-off names only ever holds the names of its current entries
+        for (int i = 0; i < 10_000; i++)
+        {
+            history.add(new CompletedTask(i, "one-off " + i));
+            if (history.size() > 10)
+            {
+                history.remove(0);
+            }
+        }
+        assertEquals(10, history.nameCount());
+
+        // Names given reused ids still read back correctly
+        history.set(0, new CompletedTask(9990, "renamed"));
+        history.add(new CompletedTask(10_000, "new"));
+        assertEquals(11, history.nameCount());
+        assertEquals("renamed", history.getTask(0));
+        assertEquals("one-off 9991", history.getTask(1));
+        assertEquals("new", history.getTask(10));
+        assertTrue(history.contains(10_000, "new"));
+        assertFalse(history.contains(9990, "one-off 9990"));
+
+        history.clear();
+        assertEquals(0, history.nameCount());
+        history.add(new CompletedTask(1, "after clear"));
+        assertEquals("after clear", history.getTask(0));
+    }
+
+    @Test
+    public void sortByTimeIsStable()
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        history.add(new CompletedTask(3, "c"));
+        history.add(new CompletedTask(1, "a1"));
+        history.add(new CompletedTask(2, "b"));
+        history.add(new CompletedTask(1, "a2"));
+        history.sortByTime();
+
+        assertEquals(Arrays.asList(
+                new CompletedTask(1, "a1"),
+                new CompletedTask(1, "a2"),
+                new CompletedTask(2, "b"),
+                new CompletedTask(3, "c")), history);
+    }
+
+    // The completed list only compares its rows again after the version changed, so every edit must change it
+    @Test
+    public void everyEditChangesTheVersion()
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        int version = history.getVersion();
+        history.insert(new CompletedTask(2, "b"));
+        version = assertVersionChanged(history, version);
+        history.add(0, new CompletedTask(1, "a"));
+        version = assertVersionChanged(history, version);
+        history.set(1, new CompletedTask(2, "renamed"));
+        version = assertVersionChanged(history, version);
+
+        // Reading and edits that change nothing leave it alone
+        history.get(0);
+        history.contains(1, "a");
+        history.sortByTime();
+        assertFalse(history.removeTask("missing"));
+        history.retainEntries(new boolean[]{true, true});
+        assertEquals(version, history.getVersion());
+
+        history.removeTask("a");
+        version = assertVersionChanged(history, version);
+        history.retainEntries(new boolean[]{false});
+        version = assertVersionChanged(history, version);
+        history.clear();
+        assertVersionChanged(history, version);
+    }
+
+    // Each name is stored once however often it was completed, the heap per entry is measured in TaskTrackerBenchmarks
+    @Test
+    public void repeatedNamesAreStoredOnce()
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        for (int i = 0; i < 200_000; i++)
+        {
+            history.add(new CompletedTask(i, "Task number " + i % 500));
+        }
+        assertEquals(200_000, history.size());
+        assertEquals(500, history.nameCount());
+        assertEquals("Task number 499", history.getTask(199_999));
+    }
+
+    private static int assertVersionChanged(CompletedTaskHistory history, int version)
+    {
+        assertNotEquals(version, history.getVersion());
+        return history.getVersion();
+    }
+}
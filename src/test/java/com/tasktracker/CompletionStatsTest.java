@@ -0,0 +1,211 @@
+package com.tasktracker;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CompletionStatsTest
+{
+    // Clocks change in March and October, so some days are 23 or 25 hours long
+    private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+    private static final long DAY = 86_400_000L;
+    private static final long NOW = ZonedDateTime.of(2024, 6, 15, 12, 0, 0, 0, ZONE).toInstant().toEpochMilli();
+    private static final int MILESTONE_INTERVAL = 10;
+
+    // Completions added one at a time are counted incrementally, the result must match counting from scratch
+    @Test
+    public void addedMatchesBruteForce()
+    {
+        Random random = new Random(9);
+        for (int trial = 0; trial < 300; trial++)
+        {
+            CompletionStats stats = new CompletionStats(ZONE);
+            CompletedTaskHistory history = new CompletedTaskHistory();
+            for (int i = random.nextInt(30); i > 0; i--)
+            {
+                history.insert(new CompletedTask(NOW - (long) (random.nextDouble() * 60 * DAY), "x"));
+            }
+            assertMatchesBruteForce(stats, history, NOW);
+
+            // Some land before the first day, some after the last and a few in the future
+            for (int i = random.nextInt(40); i > 0; i--)
+            {
+                long completedAt = NOW - (long) (random.nextDouble() * (random.nextBoolean() ? 200 : 5) * DAY)
+                        + (random.nextInt(20) == 0 ? 2 * DAY : 0);
+                history.insert(new CompletedTask(completedAt, "y"));
+                stats.added(history, completedAt);
+                if (random.nextInt(4) == 0)
+                {
+                    assertMatchesBruteForce(stats, history, NOW);
+                }
+            }
+            assertMatchesBruteForce(stats, history, NOW);
+            assertMatchesBruteForce(stats, history, NOW + random.nextInt(3) * DAY);
+        }
+    }
+
+    @Test
+    public void streakJoinsAcrossAGap()
+    {
+        CompletionStats stats = new CompletionStats(ZONE);
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        for (int daysAgo : new int[]{6, 5, 3, 2, 1, 0})
+        {
+            history.add(new CompletedTask(NOW - daysAgo * DAY, "x"));
+        }
+        CompletionStats.Summary before = stats.summarize(history, NOW, MILESTONE_INTERVAL);
+        assertEquals(4, before.getCurrentStreak());
+        assertEquals(4, before.getLongestStreak());
+
+        // Filling the one day gap joins both runs into one
+        long gap = NOW - 4 * DAY;
+        history.insert(new CompletedTask(gap, "x"));
+        stats.added(history, gap);
+        CompletionStats.Summary after = stats.summarize(history, NOW, MILESTONE_INTERVAL);
+        assertEquals(7, after.getCurrentStreak());
+        assertEquals(7, after.getLongestStreak());
+        assertMatchesBruteForce(stats, history, NOW);
+
+        // A second completion on a day already in the run changes no streak
+        history.insert(new CompletedTask(gap + 1, "x"));
+        stats.added(history, gap + 1);
+        assertEquals(7, stats.summarize(history, NOW, MILESTONE_INTERVAL).getLongestStreak());
+        assertMatchesBruteForce(stats, history, NOW);
+    }
+
+    // Any edit other than the completion being counted rebuilds the counts, even when the size ends up the same
+    @Test
+    public void editsRebuildTheCounts()
+    {
+        Random random = new Random(23);
+        for (int trial = 0; trial < 100; trial++)
+        {
+            CompletionStats stats = new CompletionStats(ZONE);
+            CompletedTaskHistory history = new CompletedTaskHistory();
+            for (int i = 1 + random.nextInt(50); i > 0; i--)
+            {
+                history.insert(new CompletedTask(NOW - (long) (random.nextDouble() * 90 * DAY), "x"));
+            }
+            assertMatchesBruteForce(stats, history, NOW);
+
+            // Moving entries to other days, the way a whole list edit replaces them
+            for (int i = random.nextInt(5); i >= 0; i--)
+            {
+                history.remove(random.nextInt(history.size()));
+                history.insert(new CompletedTask(NOW - (long) (random.nextDouble() * 90 * DAY), "moved"));
+            }
+            assertMatchesBruteForce(stats, history, NOW);
+
+            history.remove(random.nextInt(history.size()));
+            assertMatchesBruteForce(stats, history, NOW);
+
+            // A completion added after the rebuild is counted incrementally again
+            history.insert(new CompletedTask(NOW, "new"));
+            stats.added(history, NOW);
+            assertMatchesBruteForce(stats, history, NOW);
+        }
+    }
+
+    // Deleting the only completion of a task and completing another one leaves the size as it was
+    @Test
+    public void removalFollowedByACompletion()
+    {
+        CompletionStats stats = new CompletionStats(ZONE);
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        history.insert(new CompletedTask(NOW - 10 * DAY, "once"));
+        history.insert(new CompletedTask(NOW - DAY, "x"));
+        assertMatchesBruteForce(stats, history, NOW);
+
+        history.removeTask("once");
+        history.insert(new CompletedTask(NOW, "y"));
+        stats.added(history, NOW);
+        assertMatchesBruteForce(stats, history, NOW);
+        assertEquals(2, stats.summarize(history, NOW, MILESTONE_INTERVAL).getCurrentStreak());
+    }
+
+    @Test
+    public void emptyHistory()
+    {
+        CompletionStats.Summary summary = new CompletionStats(ZONE).summarize(new CompletedTaskHistory(), NOW, MILESTONE_INTERVAL);
+        assertEquals(0, summary.getTotal());
+        assertEquals(0, summary.getCurrentStreak());
+        assertEquals(0, summary.getLongestStreak());
+        assertEquals(-1, summary.getLastCompletedAt());
+        assertEquals(MILESTONE_INTERVAL, summary.getNextMilestone());
+        assertEquals(Double.NaN, summary.getMilestoneEtaDays(), 0);
+    }
+
+    // Helper function to compare every statistic and the day counts with counting the history from scratch
+    private static void assertMatchesBruteForce(CompletionStats stats, CompletedTaskHistory history, long now)
+    {
+        TreeMap<Long, Integer> days = new TreeMap<>();
+        long lastCompletedAt = -1;
+        for (int i = 0; i < history.size(); i++)
+        {
+            days.merge(epochDay(history.getCompletedAt(i)), 1, Integer::sum);
+            lastCompletedAt = Math.max(lastCompletedAt, history.getCompletedAt(i));
+        }
+        long today = epochDay(now);
+        int lastWeek = 0;
+        int lastMonth = 0;
+        for (long day = today - 29; day <= today; day++)
+        {
+            int count = days.getOrDefault(day, 0);
+            lastMonth += count;
+            lastWeek += day > today - 7 ? count : 0;
+        }
+        int longest = 0;
+        int run = 0;
+        long previous = Long.MIN_VALUE;
+        for (long day : days.keySet())
+        {
+            run = day == previous + 1 ? run + 1 : 1;
+            longest = Math.max(longest, run);
+            previous = day;
+        }
+        long streakEnd = days.containsKey(today) ? today : today - 1;
+        int current = 0;
+        while (days.containsKey(streakEnd - current))
+        {
+            current++;
+        }
+        int total = history.size();
+        double average = total == 0 ? 0 : (double) total / Math.max(1, today - days.firstKey() + 1);
+        int nextMilestone = (total / MILESTONE_INTERVAL + 1) * MILESTONE_INTERVAL;
+        double rate = lastMonth > 0 ? lastMonth / 30.0 : average;
+
+        CompletionStats.Summary summary = stats.summarize(history, now, MILESTONE_INTERVAL);
+        assertEquals(total, summary.getTotal());
+        assertEquals(days.getOrDefault(today, 0).intValue(), summary.getToday());
+        assertEquals(lastWeek, summary.getLastWeek());
+        assertEquals(lastMonth, summary.getLastMonth());
+        assertEquals(average, summary.getAveragePerDay(), 1e-9);
+        assertEquals(current, summary.getCurrentStreak());
+        assertEquals(longest, summary.getLongestStreak());
+        assertEquals(total == 0 ? -1 : lastCompletedAt, summary.getLastCompletedAt());
+        assertEquals(nextMilestone, summary.getNextMilestone());
+        assertEquals(rate > 0 ? (nextMilestone - total) / rate : Double.NaN, summary.getMilestoneEtaDays(), 1e-9);
+
+        long fromDay = today - 250;
+        int[] expected = new int[260];
+        for (int i = 0; i < expected.length; i++)
+        {
+            expected[i] = days.getOrDefault(fromDay + i, 0);
+        }
+        int[] counts = new int[expected.length];
+        stats.fillDayCounts(history, fromDay, counts);
+        assertArrayEquals(expected, counts);
+    }
+
+    private static long epochDay(long time)
+    {
+        return Instant.ofEpochMilli(time).atZone(ZONE).toLocalDate().toEpochDay();
+    }
+}
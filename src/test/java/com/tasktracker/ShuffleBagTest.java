@@ -0,0 +1,147 @@
+package com.tasktracker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShuffleBagTest
+{
+    private static final long SEED = 42;
+
+    @Test
+    public void everyTaskOnceEachRound()
+    {
+        ShuffleBag bag = bagOf(tasks(20));
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int round = 0; round < 50; round++)
+        {
+            Set<String> rolled = new HashSet<>();
+            for (int i = 0; i < 20; i++)
+            {
+                // Nothing is excluded, so a round is exactly one roll of every task
+                assertTrue("rolled twice in round " + round, rolled.add(draw(bag, random, "")));
+            }
+            assertEquals(new HashSet<>(tasks(20)), rolled);
+        }
+    }
+
+    @Test
+    public void currentTaskIsNeverRolled()
+    {
+        ShuffleBag bag = bagOf(tasks(8));
+        SplittableRandom random = new SplittableRandom(SEED);
+        String current = "";
+        for (int i = 0; i < 10_000; i++)
+        {
+            List<String> drawn = bag.getDrawnTasks();
+            boolean onlyCurrentLeft = drawn.size() == bag.size() - 1 && !drawn.contains(current);
+            String rolled = draw(bag, random, current);
+
+            assertNotEquals(current, rolled);
+            // A task drawn this round only comes back when the current task is the last one left in it
+            assertTrue(rolled + " rolled again this round", onlyCurrentLeft || drawn.size() == bag.size()
+                    || !drawn.contains(rolled));
+            current = rolled;
+        }
+    }
+
+    @Test
+    public void addAndRemoveMidRound()
+    {
+        ShuffleBag bag = bagOf(tasks(10));
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < 4; i++)
+        {
+            draw(bag, random, "");
+        }
+        List<String> drawn = bag.getDrawnTasks();
+        Set<String> left = new HashSet<>(tasks(10));
+        left.removeAll(drawn);
+
+        // A new task joins the current round, removed tasks leave it whether or not they were drawn
+        bag.add("new");
+        left.add("new");
+        String removedDrawn = drawn.get(1);
+        String removedLeft = left.iterator().next();
+        assertTrue(bag.remove(removedDrawn));
+        assertTrue(bag.remove(removedLeft));
+        assertFalse(bag.remove(removedLeft));
+        left.remove(removedLeft);
+
+        assertEquals(9, bag.size());
+        assertFalse(bag.getDrawnTasks().contains(removedDrawn));
+        assertEquals(3, bag.getDrawnTasks().size());
+
+        Set<String> rolled = new HashSet<>();
+        for (int i = 0; i < left.size(); i++)
+        {
+            rolled.add(draw(bag, random, ""));
+        }
+        assertEquals(left, rolled);
+        assertEquals(bag.size(), bag.getDrawnTasks().size());
+    }
+
+    @Test
+    public void sameSeedSameRolls()
+    {
+        assertEquals(rolls(new SplittableRandom(SEED)), rolls(new SplittableRandom(SEED)));
+    }
+
+    @Test
+    public void noOtherTask()
+    {
+        SplittableRandom random = new SplittableRandom(SEED);
+        assertNull(new ShuffleBag().pick(random, ""));
+        assertNull(bagOf(Arrays.asList("only")).pick(random, "only"));
+        assertEquals("only", bagOf(Arrays.asList("only")).pick(random, ""));
+    }
+
+    // Helper function to roll like the plugin does, picking a task and drawing it
+    private static String draw(ShuffleBag bag, SplittableRandom random, String current)
+    {
+        String task = bag.pick(random, current);
+        bag.markDrawn(task);
+        return task;
+    }
+
+    private static List<String> rolls(SplittableRandom random)
+    {
+        ShuffleBag bag = bagOf(tasks(30));
+        List<String> rolls = new ArrayList<>();
+        String current = "";
+        for (int i = 0; i < 100; i++)
+        {
+            current = draw(bag, random, current);
+            rolls.add(current);
+        }
+        return rolls;
+    }
+
+    private static ShuffleBag bagOf(List<String> tasks)
+    {
+        ShuffleBag bag = new ShuffleBag();
+        bag.sync(tasks);
+        return bag;
+    }
+
+    private static List<String> tasks(int count)
+    {
+        List<String> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            tasks.add("Task " + i);
+        }
+        return tasks;
+    }
+}
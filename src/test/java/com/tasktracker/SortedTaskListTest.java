@@ -0,0 +1,138 @@
+package com.tasktracker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class SortedTaskListTest
+{
+    // Every pair of these compares the same way in either order, tasks with a number all start with a digit
+    // Case variants are ties, leading numbers go past the 18 digits that fit in a long
+    private static final List<String> TASKS = Arrays.asList(
+            "apple", "Apple", "APPLE", "banana 12", "Banana 12", "Zebra", "#hashtag", "!bang",
+            "0", "00", "1 a", "1 A", "01 b", "2", "10 a", "10 A", "10a", "1a0 b", "12: colon", "99 x",
+            "999999999999999999 max long digits", "1000000000000000000 nineteen",
+            "00001000000000000000000 nineteen with zeros", "1000000000000000001 nineteen", "1000000000000000000 Nineteen",
+            "12345678901234567890123 big", "12345678901234567890123 Big", "99999999999999999999999999 bigger");
+
+    @Test
+    public void matchesTreeSetUnderRandomEdits()
+    {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 50; trial++)
+        {
+            SortedTaskList list = new SortedTaskList();
+            Reference reference = new Reference();
+            for (int step = 0; step < 400; step++)
+            {
+                String task = TASKS.get(random.nextInt(TASKS.size()));
+                if (random.nextInt(3) == 0)
+                {
+                    assertEquals(reference.remove(task), list.remove(task));
+                }
+                else
+                {
+                    assertEquals(reference.add(task), list.add(task));
+                }
+
+                List<String> expected = reference.tasks();
+                assertEquals(expected.size(), list.size());
+                if (!expected.isEmpty())
+                {
+                    int index = random.nextInt(expected.size());
+                    assertEquals(expected.get(index), list.get(index));
+                }
+                String probe = TASKS.get(random.nextInt(TASKS.size()));
+                assertEquals(expected.indexOf(probe), list.indexOf(probe));
+                if (step % 20 == 0)
+                {
+                    assertMatches(expected, list);
+                }
+            }
+            assertMatches(reference.tasks(), list);
+        }
+    }
+
+    @Test
+    public void longLeadingNumbersSortNumerically()
+    {
+        SortedTaskList list = new SortedTaskList();
+        List<String> sorted = Arrays.asList("9 a", "999999999999999999 a", "1000000000000000000 a",
+                "0001000000000000000001 a", "99999999999999999999 a", "100000000000000000000 a");
+        for (int i = sorted.size() - 1; i >= 0; i--)
+        {
+            list.add(sorted.get(i));
+        }
+        assertEquals(sorted, new ArrayList<>(list));
+    }
+
+    // Helper function to check every index, position and the iteration order
+    private static void assertMatches(List<String> expected, SortedTaskList list)
+    {
+        assertEquals(expected, new ArrayList<>(list));
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertEquals(expected.get(i), list.get(i));
+            assertEquals(i, list.indexOf(expected.get(i)));
+        }
+    }
+
+    // TreeSet ordered by the task sort key, tasks with equal keys stay in the order they were added like in the list
+    private static class Reference
+    {
+        private final TreeSet<Entry> entries = new TreeSet<>(Comparator.<Entry, TaskSortKey>comparing(entry -> entry.key)
+                .thenComparingLong(entry -> entry.added));
+        private final Map<String, Entry> byTask = new HashMap<>();
+        private long added;
+
+        boolean add(String task)
+        {
+            if (byTask.containsKey(task))
+            {
+                return false;
+            }
+            Entry entry = new Entry(task, added++);
+            byTask.put(task, entry);
+            return entries.add(entry);
+        }
+
+        boolean remove(String task)
+        {
+            Entry entry = byTask.remove(task);
+            return entry != null && entries.remove(entry);
+        }
+
+        List<String> tasks()
+        {
+            List<String> tasks = new ArrayList<>(entries.size());
+            for (Entry entry : entries)
+            {
+                tasks.add(entry.task);
+            }
+            return tasks;
+        }
+    }
+
+    private static class Entry
+    {
+        private final String task;
+        private final TaskSortKey key;
+        private final long added;
+
+        Entry(String task, long added)
+        {
+            this.task = task;
+            this.key = new TaskSortKey(task);
+            this.added = added;
+        }
+    }
+}
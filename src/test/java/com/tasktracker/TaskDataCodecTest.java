@@ -0,0 +1,315 @@
+package com.tasktracker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TaskDataCodecTest
+{
+    private static final String JSON = "{"
+            + "\"currentTask\":\"Kill a Jad \\u2694\","
+            + "\"active\":[\"Kill a Jad \\u2694\",\"\",\"Équipe 100% Ω\",\"Get 99 \\uD83C\\uDFA3 Fishing\"],"
+            + "\"backlog\":[\"Backlogged\",\"漢字のタスク\"],"
+            + "\"completedCount\":4,"
+            + "\"completed\":["
+            + "{\"completedAt\":1700000300000,\"task\":\"Get 99 \\uD83C\\uDFA3 Fishing\"},"
+            + "{\"completedAt\":1700000000000,\"task\":\"\"},"
+            + "{\"completedAt\":1700000000000,\"task\":\"Équipe 100% Ω\"},"
+            + "{\"completedAt\":-5,\"task\":\"Before the epoch\"}"
+            + "],"
+            + "\"repeatableTasks\":[\"\",\"Backlogged\"],"
+            + "\"journalEpoch\":-8070450532247928832,"
+            + "\"journalSequence\":1234567"
+            + "}";
+
+    // The whole data format from before the shards, version 1 has no journal epoch or sequence
+    private static final byte[] LEGACY_V1 = {
+            1,
+            // Dictionary
+            2, 1, 'a', 1, 'b',
+            // Current task, active, backlog and repeatable lists
+            1, 2, 0, 1, 0, 1, 1,
+            // Completed at 1000 and 1500, zig zag encoded deltas
+            2, (byte) 0xD0, 0x0F, 0, (byte) 0xE8, 0x07, 1,
+    };
+    // Version 2 adds the journal epoch and sequence, here 300 and 7
+    private static final byte[] LEGACY_V2 = {
+            2,
+            2, 1, 'a', 1, 'b',
+            1, 2, 0, 1, 0, 1, 1,
+            2, (byte) 0xD0, 0x0F, 0, (byte) 0xE8, 0x07, 1,
+            (byte) 0xAC, 0x02, 7,
+    };
+
+    // Legacy json data migrated to binary shards and read back, the way the plugin moves older saves
+    @Test
+    public void legacyJsonToBinaryShards() throws Exception
+    {
+        TaskTrackerData json = new TaskTrackerDataAdapter().fromJson(JSON);
+        json.getTaskWeights().put("Équipe 100% Ω", 2.5);
+        json.getTaskWeights().put("", 0.0);
+        TaskDataShards shards = new TaskDataShards(null);
+        shards.markAllDirty();
+        Map<String, String> values = shards.serialize(json, true);
+
+        assertEquals(json.getCurrentTask(), values.get(TaskDataShards.CURRENT_KEY));
+        assertEquals(new ArrayList<>(json.getActive()), decodeTasks(values.get(TaskDataShards.ACTIVE_KEY)));
+        assertEquals(new ArrayList<>(json.getBacklog()), decodeTasks(values.get(TaskDataShards.BACKLOG_KEY)));
+        assertEquals(json.getRepeatableTasks(), new HashSet<>(decodeTasks(values.get(TaskDataShards.REPEATABLE_KEY))));
+        Map<String, Double> weights = new HashMap<>();
+        TaskDataCodec.decodeWeights(values.get(TaskDataShards.WEIGHTS_KEY), weights);
+        assertEquals(json.getTaskWeights(), weights);
+
+        CompletedTaskHistory completed = new CompletedTaskHistory();
+        for (Map.Entry<String, String> value : values.entrySet())
+        {
+            if (value.getKey().startsWith("completed_"))
+            {
+                TaskDataCodec.decodeCompleted(value.getValue(), completed);
+            }
+        }
+        assertEquals(json.getCompleted(), completed);
+        assertEquals("", completed.getTask(1));
+        assertEquals("Get 99 \uD83C\uDFA3 Fishing", completed.getTask(3));
+        assertEquals("1;-8070450532247928832;1234567;1969-12,2023-11", values.get(TaskDataShards.MANIFEST_KEY));
+    }
+
+    @Test
+    public void decodesVersion1()
+    {
+        TaskTrackerData data = TaskDataCodec.decode(LEGACY_V1);
+        assertLegacyLists(data);
+        assertEquals(0, data.getJournalEpoch());
+        assertEquals(0, data.getJournalSequence());
+    }
+
+    @Test
+    public void decodesVersion2()
+    {
+        TaskTrackerData data = TaskDataCodec.decodeFromString(TaskDataCodec.PREFIX + Base64.getEncoder().encodeToString(LEGACY_V2));
+        assertLegacyLists(data);
+        assertEquals(300, data.getJournalEpoch());
+        assertEquals(7, data.getJournalSequence());
+    }
+
+    @Test
+    public void shardsRoundTrip()
+    {
+        List<String> tasks = Arrays.asList("", "漢字", "Tab\tand\nnewline", "\uD83D\uDE00");
+        assertEquals(tasks, decodeTasks(TaskDataCodec.encodeTasks(tasks)));
+        assertEquals(new ArrayList<>(), decodeTasks(TaskDataCodec.encodeTasks(new ArrayList<>())));
+
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("", 0.25);
+        weights.put("Ω", Double.MAX_VALUE);
+        Map<String, Double> decodedWeights = new HashMap<>();
+        TaskDataCodec.decodeWeights(TaskDataCodec.encodeWeights(weights), decodedWeights);
+        assertEquals(weights, decodedWeights);
+
+        CompletedTaskHistory completed = new CompletedTaskHistory();
+        completed.add(new CompletedTask(-5, "before the epoch"));
+        completed.add(new CompletedTask(5, "Ω"));
+        completed.add(new CompletedTask(5, ""));
+        completed.add(new CompletedTask(Long.MAX_VALUE, "last"));
+        CompletedTaskHistory decodedCompleted = new CompletedTaskHistory();
+        TaskDataCodec.decodeCompleted(TaskDataCodec.encodeCompleted(completed, 0, 4), decodedCompleted);
+        assertEquals(completed, decodedCompleted);
+
+        // Only the given range is written
+        CompletedTaskHistory range = new CompletedTaskHistory();
+        TaskDataCodec.decodeCompleted(TaskDataCodec.encodeCompleted(completed, 1, 3), range);
+        assertEquals(completed.subList(1, 3), range);
+    }
+
+    @Test
+    public void everyTruncationFails()
+    {
+        for (Sample sample : samples())
+        {
+            for (int length = 0; length < sample.bytes.length; length++)
+            {
+                try
+                {
+                    sample.decode(Arrays.copyOf(sample.bytes, length));
+                    fail("Decoded data truncated to " + length + " of " + sample.bytes.length + " bytes");
+                }
+                catch (IllegalArgumentException expected)
+                {
+                    // Rejected as corrupt
+                }
+            }
+        }
+    }
+
+    @Test
+    public void trailingDataFails()
+    {
+        for (Sample sample : samples())
+        {
+            try
+            {
+                sample.decode(Arrays.copyOf(sample.bytes, sample.bytes.length + 1));
+                fail("Decoded data with a trailing byte");
+            }
+            catch (IllegalArgumentException expected)
+            {
+                // Rejected as corrupt
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hugeCountFails()
+    {
+        // A dictionary of Integer.MAX_VALUE names must not be allocated
+        TaskDataCodec.decode(new byte[]{2, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownVersionFails()
+    {
+        TaskDataCodec.decodeTasks(TaskDataCodec.PREFIX + Base64.getEncoder().encodeToString(new byte[]{3, 0}), new ArrayList<>());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBase64Fails()
+    {
+        TaskDataCodec.decodeFromString(TaskDataCodec.PREFIX + "not*base64");
+    }
+
+    // Random damage is either still a valid value or rejected as corrupt, never another exception
+    @Test
+    public void corruptValuesFailCleanly()
+    {
+        Random random = new Random(42);
+        for (Sample sample : samples())
+        {
+            for (int trial = 0; trial < 2000; trial++)
+            {
+                byte[] corrupt = sample.bytes.clone();
+                for (int flips = 1 + random.nextInt(3); flips > 0; flips--)
+                {
+                    corrupt[random.nextInt(corrupt.length)] = (byte) random.nextInt(256);
+                }
+                try
+                {
+                    sample.decode(corrupt);
+                }
+                catch (IllegalArgumentException expected)
+                {
+                    // Rejected as corrupt
+                }
+            }
+        }
+    }
+
+    @Test
+    public void corruptShardsAddNothing()
+    {
+        CompletedTaskHistory completed = new CompletedTaskHistory();
+        completed.add(new CompletedTask(1, "kept"));
+        CompletedTaskHistory month = new CompletedTaskHistory();
+        month.add(new CompletedTask(2, "a"));
+        month.add(new CompletedTask(3, "b"));
+        String value = TaskDataCodec.encodeCompleted(month, 0, 2);
+        try
+        {
+            TaskDataCodec.decodeCompleted(truncate(value), completed);
+            fail("Decoded a truncated month");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            assertEquals(Arrays.asList(new CompletedTask(1, "kept")), completed);
+        }
+
+        List<String> tasks = new ArrayList<>(Arrays.asList("kept"));
+        try
+        {
+            TaskDataCodec.decodeTasks(truncate(TaskDataCodec.encodeTasks(Arrays.asList("a", "b"))), tasks);
+            fail("Decoded a truncated list");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            assertEquals(Arrays.asList("kept"), tasks);
+        }
+    }
+
+    private static void assertLegacyLists(TaskTrackerData data)
+    {
+        assertEquals("a", data.getCurrentTask());
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(data.getActive()));
+        assertTrue(data.getBacklog().isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("b")), data.getRepeatableTasks());
+        assertEquals(Arrays.asList(new CompletedTask(1000, "a"), new CompletedTask(1500, "b")), data.getCompleted());
+    }
+
+    // One value of every binary layout with the decoder that reads it
+    private static List<Sample> samples()
+    {
+        CompletedTaskHistory month = new CompletedTaskHistory();
+        month.add(new CompletedTask(1700000000000L, "Équipe 100% Ω"));
+        month.add(new CompletedTask(1700000000000L, ""));
+        month.add(new CompletedTask(1700000300000L, "Get 99 \uD83C\uDFA3 Fishing"));
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("a", 2.0);
+        weights.put("漢字", 0.5);
+        return Arrays.asList(
+                new Sample(LEGACY_V1, TaskDataCodec::decodeFromString),
+                new Sample(LEGACY_V2, TaskDataCodec::decodeFromString),
+                new Sample(bytesOf(TaskDataCodec.encodeTasks(Arrays.asList("a", "", "漢字"))),
+                        value -> TaskDataCodec.decodeTasks(value, new ArrayList<>())),
+                new Sample(bytesOf(TaskDataCodec.encodeWeights(weights)),
+                        value -> TaskDataCodec.decodeWeights(value, new HashMap<>())),
+                new Sample(bytesOf(TaskDataCodec.encodeCompleted(month, 0, month.size())),
+                        value -> TaskDataCodec.decodeCompleted(value, new CompletedTaskHistory())));
+    }
+
+    private static class Sample
+    {
+        private final byte[] bytes;
+        private final Consumer<String> decoder;
+
+        Sample(byte[] bytes, Consumer<String> decoder)
+        {
+            this.bytes = bytes;
+            this.decoder = decoder;
+        }
+
+        void decode(byte[] damaged)
+        {
+            decoder.accept(TaskDataCodec.PREFIX + Base64.getEncoder().encodeToString(damaged));
+        }
+    }
+
+    private static List<String> decodeTasks(String value)
+    {
+        List<String> tasks = new ArrayList<>();
+        TaskDataCodec.decodeTasks(value, tasks);
+        return tasks;
+    }
+
+    private static byte[] bytesOf(String value)
+    {
+        return Base64.getDecoder().decode(value.substring(TaskDataCodec.PREFIX.length()));
+    }
+
+    // Helper function to drop the last byte of an encoded value
+    private static String truncate(String value)
+    {
+        byte[] bytes = bytesOf(value);
+        return TaskDataCodec.PREFIX + Base64.getEncoder().encodeToString(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+}
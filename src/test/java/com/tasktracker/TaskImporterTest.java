@@ -0,0 +1,196 @@
+package com.tasktracker;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.tasktracker.TaskImporter.CHUNK_LINES;
+import static com.tasktracker.TaskImporter.MAX_REPORTED_ERRORS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskImporterTest
+{
+    private static final String PATTERN = TaskTrackerConfig.TimestampFormat.US.getPattern();
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+    private static final DateTimeFormatter PARSER = TaskImporter.parserFor(PATTERN);
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    public void chunksMatchLineByLineParsing()
+    {
+        // Blank, "\r\n" terminated and " - " containing lines fall on and around every chunk boundary
+        String text = completedText(3 * CHUNK_LINES + 17, new TreeSet<>());
+        TaskImporter.CompletedImport result = parse(text);
+
+        assertFalse(result.hasErrors());
+        assertEquals(parseLineByLine(text), result.getCompleted());
+        assertTrue(result.getCompleted().contains(timeOf(CHUNK_LINES - 1), taskOf(CHUNK_LINES - 1)));
+        assertTrue(result.getCompleted().contains(timeOf(CHUNK_LINES + 1), taskOf(CHUNK_LINES + 1)));
+        assertTrue(result.getCompleted().contains(timeOf(2 * CHUNK_LINES), taskOf(2 * CHUNK_LINES)));
+    }
+
+    @Test
+    public void textEndingOnAChunkBoundary()
+    {
+        for (int lines = CHUNK_LINES - 1; lines <= CHUNK_LINES + 1; lines++)
+        {
+            String text = completedText(lines, new TreeSet<>());
+            for (String variant : Arrays.asList(text, text + "\n", text + "\r\n", text + "\n\n"))
+            {
+                TaskImporter.CompletedImport result = parse(variant);
+                assertFalse(result.hasErrors());
+                assertEquals(parseLineByLine(variant), result.getCompleted());
+            }
+        }
+    }
+
+    @Test
+    public void errorLinesAreNumberedAcrossChunks()
+    {
+        Set<Integer> bad = new TreeSet<>(Arrays.asList(1, CHUNK_LINES - 1, CHUNK_LINES + 1, CHUNK_LINES + 2,
+                2 * CHUNK_LINES + 5, 3 * CHUNK_LINES));
+        String text = completedText(3 * CHUNK_LINES, bad);
+        TaskImporter.CompletedImport result = parse(text);
+
+        assertTrue(result.hasErrors());
+        assertNull(result.getCompleted());
+        List<String> expected = new ArrayList<>();
+        for (int line : bad)
+        {
+            expected.add("Line " + line + ": " + errorOf(line));
+        }
+        assertEquals(expected, reportedErrors(result));
+        assertTrue(result.getErrorReport().startsWith(bad.size() + " lines have errors, nothing was changed:"));
+    }
+
+    @Test
+    public void reportListsTheFirstErrorsAndCountsTheRest()
+    {
+        // Every 40th line is bad, the 25 reported ones span several chunks and so do the counted ones
+        Set<Integer> bad = new TreeSet<>();
+        for (int line = 40; line <= 3 * CHUNK_LINES; line += 40)
+        {
+            bad.add(line);
+        }
+        TaskImporter.CompletedImport result = parse(completedText(3 * CHUNK_LINES, bad));
+
+        List<String> expected = new ArrayList<>();
+        for (int line : bad)
+        {
+            if (expected.size() < MAX_REPORTED_ERRORS)
+            {
+                expected.add("Line " + line + ": " + errorOf(line));
+            }
+        }
+        String report = result.getErrorReport();
+        assertTrue(report.startsWith(bad.size() + " lines have errors, nothing was changed:"));
+        assertEquals(expected, reportedErrors(result));
+        assertTrue(report.endsWith("\n... and " + (bad.size() - MAX_REPORTED_ERRORS) + " more"));
+    }
+
+    @Test
+    public void singleErrorReport()
+    {
+        TaskImporter.CompletedImport result = parse("01/01/2024 10:00 - fine\n02/30/2024 10:00 - no such day");
+        assertEquals("1 line has errors, nothing was changed:\n\n"
+                + "Line 2: invalid date '02/30/2024 10:00', expected format " + PATTERN, result.getErrorReport());
+    }
+
+    static TaskImporter.CompletedImport parse(String text)
+    {
+        return TaskImporter.parseCompleted(text, PARSER, PATTERN, ZONE);
+    }
+
+    // Helper function to build completed task lines, the lines in bad have an error
+    static String completedText(int lines, Set<Integer> bad)
+    {
+        StringBuilder text = new StringBuilder();
+        for (int line = 1; line <= lines; line++)
+        {
+            if (bad.contains(line))
+            {
+                text.append(line % 2 == 0 ? "no separator on this line" : "13/45/2024 10:00 - " + taskOf(line));
+            }
+            else if (line % 97 == 0 || line == CHUNK_LINES)
+            {
+                text.append("   ");
+            }
+            else
+            {
+                text.append(FORMATTER.format(START.plusMinutes(minuteOf(line)))).append(" - ").append(taskOf(line));
+            }
+            if (line < lines)
+            {
+                text.append(line % 3 == 0 ? "\r\n" : "\n");
+            }
+        }
+        return text.toString();
+    }
+
+    private static String errorOf(int line)
+    {
+        return line % 2 == 0
+                ? "missing separator ' - ', expected [Date] - [Task Name], found: no separator on this line"
+                : "invalid date '13/45/2024 10:00', expected format " + PATTERN;
+    }
+
+    // Out of order times that repeat, so sorting has ties to keep in line order
+    private static int minuteOf(int line)
+    {
+        return line * 7919 % 50_000;
+    }
+
+    private static long timeOf(int line)
+    {
+        return START.plusMinutes(minuteOf(line)).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static String taskOf(int line)
+    {
+        return "Task " + line % 300 + (line % 5 == 0 ? " - with a separator" : "");
+    }
+
+    // Helper function to parse the text one line at a time, the way parseCompleted should see it
+    static CompletedTaskHistory parseLineByLine(String text)
+    {
+        CompletedTaskHistory completed = new CompletedTaskHistory();
+        for (String line : text.split("\n", -1))
+        {
+            if (line.trim().isEmpty())
+            {
+                continue;
+            }
+            int separator = line.indexOf(" - ");
+            LocalDateTime date = PARSER.parse(line.substring(0, separator).trim(), LocalDateTime::from);
+            completed.add(new CompletedTask(date.atZone(ZONE).toInstant().toEpochMilli(),
+                    line.substring(separator + 3).trim()));
+        }
+        completed.sortByTime();
+        return completed;
+    }
+
+    private static List<String> reportedErrors(TaskImporter.CompletedImport result)
+    {
+        List<String> errors = new ArrayList<>();
+        for (String line : result.getErrorReport().split("\n"))
+        {
+            if (line.startsWith("Line "))
+            {
+                errors.add(line);
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,130 @@
+package com.tasktracker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TaskJournalTest
+{
+    private Path directory;
+    private TaskJournal journal;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("task-journal");
+        journal = new TaskJournal(directory.toFile());
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        journal.close();
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    // Operations a profile has not saved yet are replayed when it is loaded again after another profile
+    @Test
+    public void switchingProfilesKeepsUnsavedOperations()
+    {
+        TaskTrackerData first = new TaskTrackerData();
+        assertEquals(0, journal.open(first));
+        TaskTrackerData firstSnapshot = snapshotOf(first);
+        apply(first, TaskOperation.SET_CURRENT, "first a");
+        apply(first, TaskOperation.SET_CURRENT, "first b");
+
+        TaskTrackerData second = new TaskTrackerData();
+        assertEquals(0, journal.open(second));
+        apply(second, TaskOperation.SET_CURRENT, "second");
+
+        assertEquals(2, journal.open(firstSnapshot));
+        assertEquals("first b", firstSnapshot.getCurrentTask());
+        assertEquals(2, firstSnapshot.getJournalSequence());
+
+        TaskTrackerData secondSnapshot = snapshotOf(second);
+        assertEquals(1, journal.open(secondSnapshot));
+        assertEquals("second", secondSnapshot.getCurrentTask());
+    }
+
+    @Test
+    public void savedLogsOfOtherProfilesAreDeleted() throws IOException
+    {
+        TaskTrackerData first = new TaskTrackerData();
+        journal.open(first);
+        apply(first, TaskOperation.SET_CURRENT, "saved");
+        journal.compact(first.getJournalSequence());
+
+        journal.open(new TaskTrackerData());
+        try (Stream<Path> logs = Files.list(directory))
+        {
+            assertEquals(1, logs.count());
+        }
+    }
+
+    // The log of an epoch a config reset discarded is never opened again, it goes once it is old enough
+    @Test
+    public void longUnusedLogsAreDeleted() throws IOException
+    {
+        TaskTrackerData reset = new TaskTrackerData();
+        journal.open(reset);
+        apply(reset, TaskOperation.SET_CURRENT, "never saved");
+        TaskTrackerData recent = new TaskTrackerData();
+        journal.open(recent);
+        apply(recent, TaskOperation.SET_CURRENT, "not saved yet");
+        Path resetLog = directory.resolve("journal-" + Long.toHexString(reset.getJournalEpoch()) + ".log");
+        Path recentLog = directory.resolve("journal-" + Long.toHexString(recent.getJournalEpoch()) + ".log");
+        Files.setLastModifiedTime(resetLog, FileTime.from(Instant.now().minus(Duration.ofDays(91))));
+
+        journal.open(new TaskTrackerData());
+        assertFalse(Files.exists(resetLog));
+        assertTrue(Files.exists(recentLog));
+    }
+
+    @Test
+    public void sharedLogIsMovedToItsEpoch() throws IOException
+    {
+        Files.write(directory.resolve("journal.log"), Arrays.asList(
+                "#tasktracker-journal\t42",
+                "1\tSET_CURRENT\tfrom the old log"), StandardCharsets.UTF_8);
+
+        TaskTrackerData data = new TaskTrackerData();
+        data.setJournalEpoch(42);
+        assertEquals(1, journal.open(data));
+        assertEquals("from the old log", data.getCurrentTask());
+        assertFalse(Files.exists(directory.resolve("journal.log")));
+        assertTrue(Files.exists(directory.resolve("journal-2a.log")));
+    }
+
+    private void apply(TaskTrackerData data, TaskOperation operation, String... args)
+    {
+        operation.apply(data, args);
+        journal.append(data, operation, args);
+    }
+
+    // Helper function to copy the data as it was saved, before any operation in the journal
+    private static TaskTrackerData snapshotOf(TaskTrackerData data)
+    {
+        TaskTrackerData snapshot = new TaskTrackerData();
+        snapshot.setJournalEpoch(data.getJournalEpoch());
+        return snapshot;
+    }
+}
@@ -0,0 +1,198 @@
+package com.tasktracker;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskListDiffTest
+{
+    private static final String PATTERN = TaskTrackerConfig.TimestampFormat.US.getPattern();
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Test
+    public void unchangedRoundTripKeepsTimestamps()
+    {
+        CompletedTaskHistory current = historyOf(
+                new CompletedTask(at(2024, 1, 5, 9, 30, 12_345, NEW_YORK), "a"),
+                new CompletedTask(at(2024, 1, 5, 9, 30, 59_999, NEW_YORK), "b"),
+                new CompletedTask(at(2024, 3, 10, 3, 15, 1, NEW_YORK), "a"),
+                new CompletedTask(at(2024, 7, 1, 23, 59, 30_500, NEW_YORK), "Task - with a separator"));
+        CompletedTaskHistory original = copyOf(current);
+        List<Long> changed = new ArrayList<>();
+
+        assertFalse(TaskListDiff.applyCompleted(current, roundTrip(current, NEW_YORK), NEW_YORK, changed::add));
+        assertEquals(original, current);
+        assertTrue(changed.isEmpty());
+    }
+
+    @Test
+    public void duplicateLinesInTheSameMinute()
+    {
+        long first = at(2024, 5, 1, 10, 0, 5_000, NEW_YORK);
+        long second = at(2024, 5, 1, 10, 0, 40_000, NEW_YORK);
+        long other = at(2024, 5, 1, 10, 0, 59_000, NEW_YORK);
+        CompletedTaskHistory current = historyOf(new CompletedTask(first, "a"), new CompletedTask(second, "a"),
+                new CompletedTask(other, "b"));
+        CompletedTaskHistory original = copyOf(current);
+
+        // Both copies of the line match an entry of their own
+        assertFalse(TaskListDiff.applyCompleted(current, roundTrip(current, NEW_YORK), NEW_YORK, time -> { }));
+        assertEquals(original, current);
+
+        // A third copy is new, the two entries already there keep their seconds
+        String text = dialogText(current, NEW_YORK) + "\n05/01/2024 10:00 - a";
+        List<Long> changed = new ArrayList<>();
+        assertTrue(TaskListDiff.applyCompleted(current, parse(text, NEW_YORK), NEW_YORK, changed::add));
+        long added = at(2024, 5, 1, 10, 0, 0, NEW_YORK);
+        assertEquals(Arrays.asList(new CompletedTask(added, "a"), new CompletedTask(first, "a"),
+                new CompletedTask(second, "a"), new CompletedTask(other, "b")), current);
+        assertEquals(Arrays.asList(added), changed);
+    }
+
+    @Test
+    public void removingOneOfTwoIdenticalEntries()
+    {
+        long first = at(2024, 5, 1, 10, 0, 5_000, NEW_YORK);
+        long second = at(2024, 5, 1, 10, 0, 40_000, NEW_YORK);
+        long other = at(2024, 6, 1, 8, 0, 0, NEW_YORK);
+        CompletedTaskHistory current = historyOf(new CompletedTask(first, "a"), new CompletedTask(second, "a"),
+                new CompletedTask(other, "b"));
+
+        String text = "05/01/2024 10:00 - a\n06/01/2024 08:00 - b";
+        List<Long> changed = new ArrayList<>();
+        assertTrue(TaskListDiff.applyCompleted(current, parse(text, NEW_YORK), NEW_YORK, changed::add));
+
+        // Exactly one of the two goes, the other and the untouched line keep their exact times
+        assertEquals(Arrays.asList(new CompletedTask(first, "a"), new CompletedTask(other, "b")), current);
+        assertEquals(Arrays.asList(second), changed);
+    }
+
+    @Test
+    public void repeatedHourWhenClocksGoBack()
+    {
+        // 01:30 on 3 November 2024 happens twice in New York, first in daylight time and then in standard time
+        long daylight = ZonedDateTime.of(2024, 11, 3, 1, 30, 0, 0, NEW_YORK).withEarlierOffsetAtOverlap()
+                .toInstant().toEpochMilli() + 7_000;
+        long standard = ZonedDateTime.of(2024, 11, 3, 1, 30, 0, 0, NEW_YORK).withLaterOffsetAtOverlap()
+                .toInstant().toEpochMilli() + 7_000;
+        assertEquals(3_600_000, standard - daylight);
+        CompletedTaskHistory current = historyOf(new CompletedTask(daylight, "a"), new CompletedTask(standard, "a"),
+                new CompletedTask(standard + 60_000, "b"));
+        CompletedTaskHistory original = copyOf(current);
+
+        // Both show as the same line and parse back to the daylight time, neither is replaced by it
+        assertEquals("11/03/2024 01:30 - a\n11/03/2024 01:30 - a\n11/03/2024 01:31 - b", dialogText(current, NEW_YORK));
+        assertFalse(TaskListDiff.applyCompleted(current, roundTrip(current, NEW_YORK), NEW_YORK, time -> { }));
+        assertEquals(original, current);
+
+        List<Long> changed = new ArrayList<>();
+        assertTrue(TaskListDiff.applyCompleted(current, parse("11/03/2024 01:30 - a\n11/03/2024 01:31 - b", NEW_YORK),
+                NEW_YORK, changed::add));
+        assertEquals(Arrays.asList(new CompletedTask(daylight, "a"), new CompletedTask(standard + 60_000, "b")), current);
+        assertEquals(Arrays.asList(standard), changed);
+    }
+
+    // Only the month shards holding removed or added entries are saved again
+    @Test
+    public void onlyChangedMonthsAreMarkedDirty()
+    {
+        TaskTrackerData data = new TaskTrackerData();
+        for (int month = 1; month <= 6; month++)
+        {
+            data.getCompleted().add(new CompletedTask(at(2024, month, 15, 12, 0, 0, ZoneOffset.UTC), "task " + month));
+        }
+        TaskDataShards shards = new TaskDataShards(null);
+        shards.markAllDirty();
+        shards.saved(shards.serialize(data, true));
+
+        // February is removed and a completion is added in May, the other lines are left alone
+        String text = dialogText(data.getCompleted(), ZoneOffset.UTC)
+                .replace("02/15/2024 12:00 - task 2\n", "") + "\n05/20/2024 08:00 - new";
+        assertTrue(TaskListDiff.applyCompleted(data.getCompleted(), parse(text, ZoneOffset.UTC), ZoneOffset.UTC,
+                shards::markCompletedDirty));
+
+        Map<String, String> changes = shards.serialize(data, true);
+        assertEquals(new HashSet<>(Arrays.asList("completed_2024-02", "completed_2024-05", TaskDataShards.MANIFEST_KEY)),
+                changes.keySet());
+        // February has no entries left, so its key is removed
+        assertNull(changes.get("completed_2024-02"));
+    }
+
+    @Test
+    public void applyTasksAddsAndRemovesTheDifference()
+    {
+        List<String> current = new ArrayList<>(Arrays.asList("a", "b", "c"));
+        List<String> removed = new ArrayList<>();
+        assertTrue(TaskListDiff.applyTasks(new ArrayList<>(current), Arrays.asList("c", "d", "a"), removed::add,
+                current::add));
+        assertEquals(Arrays.asList("b"), removed);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), current);
+        assertFalse(TaskListDiff.applyTasks(current, new ArrayList<>(current), task -> { }, task -> { }));
+    }
+
+    private static long at(int year, int month, int day, int hour, int minute, int millis, ZoneId zone)
+    {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, zone).toInstant().toEpochMilli() + millis;
+    }
+
+    // Helper function to show the history the way the edit dialog does, one line per entry
+    private static String dialogText(CompletedTaskHistory history, ZoneId zone)
+    {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(PATTERN).withZone(zone);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < history.size(); i++)
+        {
+            if (i > 0)
+            {
+                text.append('\n');
+            }
+            text.append(formatter.format(Instant.ofEpochMilli(history.getCompletedAt(i))))
+                    .append(" - ").append(history.getTask(i));
+        }
+        return text.toString();
+    }
+
+    private static CompletedTaskHistory parse(String text, ZoneId zone)
+    {
+        TaskImporter.CompletedImport result = TaskImporter.parseCompleted(text, TaskImporter.parserFor(PATTERN), PATTERN, zone);
+        assertFalse(result.hasErrors());
+        return result.getCompleted();
+    }
+
+    // Helper function to save the dialog without touching it
+    private static CompletedTaskHistory roundTrip(CompletedTaskHistory history, ZoneId zone)
+    {
+        return parse(dialogText(history, zone), zone);
+    }
+
+    private static CompletedTaskHistory historyOf(CompletedTask... tasks)
+    {
+        CompletedTaskHistory history = new CompletedTaskHistory();
+        for (CompletedTask task : tasks)
+        {
+            history.add(task);
+        }
+        return history;
+    }
+
+    private static CompletedTaskHistory copyOf(CompletedTaskHistory history)
+    {
+        CompletedTaskHistory copy = new CompletedTaskHistory();
+        copy.addAll(history);
+        return copy;
+    }
+}
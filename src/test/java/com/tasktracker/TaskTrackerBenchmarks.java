@@ -0,0 +1,144 @@
+package com.tasktracker;
+
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+// Timings and heap sizes that are only reported, never asserted, so they are left out of the regular test run
+// Run them with ./gradlew test -Pbenchmarks --tests com.tasktracker.TaskTrackerBenchmarks -i to see the output
+public class TaskTrackerBenchmarks
+{
+    private static final int WARMUP_RUNS = 5;
+    private static final int TIMED_RUNS = 5;
+
+    private final Gson gson = new Gson();
+
+    @Before
+    public void benchmarksEnabled()
+    {
+        assumeTrue(Boolean.getBoolean("tasktracker.benchmarks"));
+    }
+
+    @Test
+    public void completedHistoryHeapPerEntry()
+    {
+        int entries = 200_000;
+        String[] tasks = new String[500];
+        for (int i = 0; i < tasks.length; i++)
+        {
+            tasks[i] = "Task number " + i;
+        }
+
+        long before = usedHeap();
+        CompletedTaskHistory history = new CompletedTaskHistory(entries);
+        for (int i = 0; i < entries; i++)
+        {
+            history.add(new CompletedTask(i, tasks[i % tasks.length]));
+        }
+        double historyBytes = (double) (usedHeap() - before) / entries;
+
+        before = usedHeap();
+        List<CompletedTask> objects = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++)
+        {
+            objects.add(new CompletedTask(i, tasks[i % tasks.length]));
+        }
+        double objectBytes = (double) (usedHeap() - before) / entries;
+
+        assertEquals(entries, history.size());
+        assertEquals(entries, objects.size());
+        System.out.printf("CompletedTaskHistory %.1f bytes per entry, List<CompletedTask> %.1f bytes per entry%n",
+                historyBytes, objectBytes);
+    }
+
+    // The streaming migration reader and the shard writers that replaced reflective Gson on the whole data
+    @Test
+    public void taskDataAgainstReflectiveGson()
+    {
+        TaskTrackerData data = TaskTrackerDataAdapterTest.sampleData(50_000);
+        TaskTrackerDataAdapterTest.ReflectiveData reflective = TaskTrackerDataAdapterTest.toReflective(data);
+        String json = gson.toJson(reflective);
+        TaskTrackerDataAdapter adapter = new TaskTrackerDataAdapter();
+
+        double readAdapter = bestMillis(() ->
+        {
+            try
+            {
+                assertEquals(data.getCompleted().size(), adapter.fromJson(json).getCompleted().size());
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        });
+        double readReflective = bestMillis(() -> assertEquals(data.getCompleted().size(),
+                gson.fromJson(json, TaskTrackerDataAdapterTest.ReflectiveData.class).completed.size()));
+        double writeJsonShards = bestMillis(() -> serializeAll(data, false));
+        double writeCompactShards = bestMillis(() -> serializeAll(data, true));
+        double writeReflective = bestMillis(() -> gson.toJson(reflective));
+
+        System.out.printf("%d completions (%d kB), read: adapter %.1f ms, reflective Gson %.1f ms, write: json shards "
+                        + "%.1f ms, compact shards %.1f ms, reflective Gson %.1f ms%n", data.getCompleted().size(),
+                json.length() / 1024, readAdapter, readReflective, writeJsonShards, writeCompactShards, writeReflective);
+    }
+
+    // Chunked parsing of a pasted history compared with parsing it line by line on one thread
+    @Test
+    public void parseCompletedThroughput()
+    {
+        int lines = 200_000;
+        String text = TaskImporterTest.completedText(lines, new TreeSet<>());
+        int expected = TaskImporterTest.parseLineByLine(text).size();
+
+        double chunked = bestMillis(() -> assertEquals(expected, TaskImporterTest.parse(text).getCompleted().size()));
+        double lineByLine = bestMillis(() -> assertEquals(expected, TaskImporterTest.parseLineByLine(text).size()));
+
+        System.out.printf("%d completed lines (%d kB), parseCompleted %.1f ms (%.0f lines/ms), line by line %.1f ms, "
+                        + "%d processors%n", lines, text.length() / 1024, chunked, lines / chunked, lineByLine,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    // Helper function to write every shard, the way the first save after a migration does
+    private static void serializeAll(TaskTrackerData data, boolean compact)
+    {
+        TaskDataShards shards = new TaskDataShards(null);
+        shards.markAllDirty();
+        shards.serialize(data, compact);
+    }
+
+    // Helper function to time a run in milliseconds, the best of the runs after the ones that warm up the JIT
+    private static double bestMillis(Runnable run)
+    {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_RUNS + TIMED_RUNS; i++)
+        {
+            long start = System.nanoTime();
+            run.run();
+            long time = System.nanoTime() - start;
+            if (i >= WARMUP_RUNS)
+            {
+                best = Math.min(best, time);
+            }
+        }
+        return best / 1e6;
+    }
+
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
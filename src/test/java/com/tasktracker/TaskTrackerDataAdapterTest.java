@@ -0,0 +1,157 @@
+package com.tasktracker;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskTrackerDataAdapterTest
+{
+    private final Gson gson = new Gson();
+    private final TaskTrackerDataAdapter adapter = new TaskTrackerDataAdapter();
+
+    // Task data as it was read and written through reflective Gson before the streaming adapter
+    static class ReflectiveData
+    {
+        String currentTask = "";
+        List<String> active = new ArrayList<>();
+        List<String> backlog = new ArrayList<>();
+        List<CompletedTask> completed = new ArrayList<>();
+        Set<String> repeatableTasks = new HashSet<>();
+        long journalEpoch;
+        long journalSequence;
+    }
+
+    // The json shards hold each list the way reflective Gson wrote it inside the single key layout
+    @Test
+    public void jsonShardsUseTheReflectiveLayout()
+    {
+        TaskTrackerData data = sampleData(50);
+        TaskDataShards shards = new TaskDataShards(null);
+        shards.markAllDirty();
+        Map<String, String> values = shards.serialize(data, false);
+
+        JsonObject reflective = gson.fromJson(gson.toJson(toReflective(data)), JsonObject.class);
+        assertEquals(reflective.get("active"), gson.fromJson(values.get(TaskDataShards.ACTIVE_KEY), JsonArray.class));
+        assertEquals(reflective.get("backlog"), gson.fromJson(values.get(TaskDataShards.BACKLOG_KEY), JsonArray.class));
+        assertEquals(reflective.get("repeatableTasks"),
+                gson.fromJson(values.get(TaskDataShards.REPEATABLE_KEY), JsonArray.class));
+
+        JsonArray completed = new JsonArray();
+        for (Map.Entry<String, String> value : values.entrySet())
+        {
+            if (value.getKey().startsWith("completed_"))
+            {
+                completed.addAll(gson.fromJson(value.getValue(), JsonArray.class));
+            }
+        }
+        assertEquals(reflective.get("completed"), completed);
+    }
+
+    // Saves written by the shard writers must still read back through the migration reader
+    @Test
+    public void adapterReadsShardLists() throws Exception
+    {
+        TaskTrackerData data = sampleData(50);
+        TaskDataShards shards = new TaskDataShards(null);
+        shards.markAllDirty();
+        Map<String, String> values = shards.serialize(data, false);
+
+        TaskTrackerData read = adapter.fromJson("{\"currentTask\":" + gson.toJson(values.get(TaskDataShards.CURRENT_KEY))
+                + ",\"active\":" + values.get(TaskDataShards.ACTIVE_KEY)
+                + ",\"backlog\":" + values.get(TaskDataShards.BACKLOG_KEY)
+                + ",\"completed\":" + values.get("completed_2020-09")
+                + ",\"repeatableTasks\":" + values.get(TaskDataShards.REPEATABLE_KEY)
+                + ",\"journalEpoch\":-42,\"journalSequence\":7}");
+        assertSameData(toReflective(data), toReflective(read));
+    }
+
+    @Test
+    public void adapterReadsReflectiveOutput() throws Exception
+    {
+        TaskTrackerData data = sampleData(50);
+        TaskTrackerData read = adapter.fromJson(gson.toJson(toReflective(data)));
+        assertSameData(toReflective(data), toReflective(read));
+    }
+
+    @Test
+    public void nullAndMissingFieldsAreEmpty() throws Exception
+    {
+        // Reflective Gson leaves out null fields, and older saves have no repeatable tasks, count or journal at all
+        TaskTrackerData missing = adapter.fromJson("{\"currentTask\":\"a\",\"active\":[\"a\"],\"backlog\":[],\"completed\":[]}");
+        assertTrue(missing.getRepeatableTasks().isEmpty());
+        assertEquals(0, missing.getJournalEpoch());
+
+        TaskTrackerData nulls = adapter.fromJson("{\"currentTask\":null,\"active\":null,\"backlog\":[null,\"b\"],"
+                + "\"completed\":[null,{\"completedAt\":5,\"task\":null},{\"completedAt\":6,\"task\":\"c\"}],"
+                + "\"repeatableTasks\":null,\"unknown\":{\"nested\":[1,2]}}");
+        assertEquals("", nulls.getCurrentTask());
+        assertTrue(nulls.getActive().isEmpty());
+        assertEquals(Arrays.asList("b"), new ArrayList<>(nulls.getBacklog()));
+        assertEquals(Arrays.asList(new CompletedTask(6, "c")), nulls.getCompleted());
+        assertTrue(nulls.getRepeatableTasks().isEmpty());
+
+    }
+
+    @Test
+    public void newestFirstHistoryIsSorted() throws Exception
+    {
+        TaskTrackerData read = adapter.fromJson("{\"completed\":[{\"completedAt\":3,\"task\":\"c\"},"
+                + "{\"completedAt\":2,\"task\":\"b\"},{\"completedAt\":1,\"task\":\"a\"}]}");
+        assertEquals(Arrays.asList(new CompletedTask(1, "a"), new CompletedTask(2, "b"), new CompletedTask(3, "c")),
+                read.getCompleted());
+    }
+
+    static TaskTrackerData sampleData(int completions)
+    {
+        TaskTrackerData data = new TaskTrackerData();
+        data.setCurrentTask("Task 3");
+        for (int i = 0; i < 200; i++)
+        {
+            data.getActive().add("Task " + i);
+        }
+        data.getBacklog().add("Backlog \"quoted\" é");
+        data.getRepeatableTasks().add("Task 3");
+        for (int i = 0; i < completions; i++)
+        {
+            data.getCompleted().add(new CompletedTask(1_600_000_000_000L + i * 60_000L, "Task " + i % 500));
+        }
+        data.setJournalEpoch(-42);
+        data.setJournalSequence(7);
+        return data;
+    }
+
+    static ReflectiveData toReflective(TaskTrackerData data)
+    {
+        ReflectiveData reflective = new ReflectiveData();
+        reflective.currentTask = data.getCurrentTask();
+        reflective.active = new ArrayList<>(data.getActive());
+        reflective.backlog = new ArrayList<>(data.getBacklog());
+        reflective.completed = new ArrayList<>(data.getCompleted());
+        reflective.repeatableTasks = new HashSet<>(data.getRepeatableTasks());
+        reflective.journalEpoch = data.getJournalEpoch();
+        reflective.journalSequence = data.getJournalSequence();
+        return reflective;
+    }
+
+    private static void assertSameData(ReflectiveData expected, ReflectiveData actual)
+    {
+        assertEquals(expected.currentTask, actual.currentTask);
+        assertEquals(expected.active, actual.active);
+        assertEquals(expected.backlog, actual.backlog);
+        assertEquals(expected.completed, actual.completed);
+        assertEquals(expected.repeatableTasks, actual.repeatableTasks);
+        assertEquals(expected.journalEpoch, actual.journalEpoch);
+        assertEquals(expected.journalSequence, actual.journalSequence);
+    }
+}